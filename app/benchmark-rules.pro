@@ -0,0 +1,11 @@
+# Build "benchmark" : membres appelés seulement par les microbenchmarks de src/androidTest.
+# R8 ne voit pas ces appels et les supprimerait ou les renommerait dans l'APK mesuré.
+-keep class com.nada.mycontact.utils.AvatarLoader { public *; }
+-keep interface com.nada.mycontact.utils.AvatarLoader$OnAvatarLoadedListener { *; }
+-keep class com.nada.mycontact.utils.PhotoStore { public *; }
+-keep class com.nada.mycontact.models.ContactSummary { public *; }
+-keep class com.nada.mycontact.utils.BulkOperationEngine { public *; }
+-keep class com.nada.mycontact.utils.BulkOperationEngine$* { public *; }
+-keep class com.nada.mycontact.utils.FirebaseHelper { public *; }
+-keep class com.nada.mycontact.utils.ImageUtils { public *; }
+-keep class com.nada.mycontact.utils.BitmapPool { public *; }
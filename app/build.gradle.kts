@@ -1,6 +1,43 @@
+import com.android.build.api.variant.BuildConfigField
+
 plugins {
     id("com.android.application")
     id("com.google.gms.google-services")
+    id("androidx.baselineprofile")
+}
+
+// Hôte de l'émulateur Firestore des builds de mesure : émulateur Android par défaut,
+// -PfirestoreEmulatorHost=localhost pour un appareil réel (adb reverse tcp:8080 tcp:8080)
+val firestoreEmulatorHost = (project.findProperty("firestoreEmulatorHost") ?: "10.0.2.2").toString()
+
+// res/xml/network_security_config.xml de chaque variante : HTTP en clair vers l'hôte de l'émulateur
+// pour les builds de mesure uniquement (cleartextHost vide : configuration par défaut, TLS partout)
+abstract class NetworkSecurityConfigTask : DefaultTask() {
+    @get:Input
+    abstract val cleartextHost: Property<String>
+
+    @get:OutputDirectory
+    abstract val outputDirectory: DirectoryProperty
+
+    @TaskAction
+    fun generate() {
+        val host = cleartextHost.get()
+        val domainConfig = if (host.isEmpty()) "" else """
+            |    <domain-config cleartextTrafficPermitted="true">
+            |        <domain includeSubdomains="false">$host</domain>
+            |    </domain-config>
+            |""".trimMargin()
+        val file = outputDirectory.file("xml/network_security_config.xml").get().asFile
+        file.parentFile.mkdirs()
+        file.writeText(
+            """
+            |<?xml version="1.0" encoding="utf-8"?>
+            |<!-- Généré par ${name} (app/build.gradle.kts) -->
+            |<network-security-config>
+            |$domainConfig</network-security-config>
+            |""".trimMargin()
+        )
+    }
 }
 
 android {
@@ -14,19 +51,36 @@ android {
         versionCode = 1
         versionName = "1.0"
 
-        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        // Microbenchmarks de src/androidTest (androidx.benchmark), lancés sur le build "benchmark"
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+
     }
 
     buildTypes {
         release {
-            isMinifyEnabled = false
+            isMinifyEnabled = true
+            isShrinkResources = true
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
                 "proguard-rules.pro"
             )
         }
+        // Release des microbenchmarks de src/androidTest (R8), signée avec la clé debug.
+        // :macrobenchmark mesure les build types créés par le plugin baselineprofile
+        // (benchmarkRelease, nonMinifiedRelease pour la génération du profil).
+        create("benchmark") {
+            initWith(getByName("release"))
+            signingConfig = signingConfigs.getByName("debug")
+            matchingFallbacks += listOf("release")
+            proguardFiles("benchmark-rules.pro")
+        }
     }
 
+    // Microbenchmarks non débogables, sur le code passé par R8 :
+    //   firebase emulators:start --only firestore
+    //   ./gradlew :app:connectedBenchmarkAndroidTest
+    testBuildType = "benchmark"
+
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
@@ -34,6 +88,36 @@ android {
 
     buildFeatures {
         viewBinding = true
+        buildConfig = true
+    }
+}
+
+baselineProfile {
+    // Sortie de BaselineProfileGenerator (./gradlew :app:generateBaselineProfile), commitée dans
+    // src/main/generated/baselineProfiles et appliquée à toutes les variantes
+    mergeIntoMain = true
+}
+
+androidComponents {
+    onVariants { variant ->
+        // Builds de mesure : branchés sur l'émulateur Firestore semé par les tests, jamais sur les
+        // contacts réels, et profilables par :macrobenchmark
+        val measured = variant.buildType?.let {
+            it.startsWith("benchmark") || it.startsWith("nonMinified")
+        } == true
+        variant.buildConfigFields.put("USE_FIRESTORE_EMULATOR",
+            BuildConfigField("boolean", measured.toString(), null))
+        variant.buildConfigFields.put("FIRESTORE_EMULATOR_HOST",
+            BuildConfigField("String", "\"$firestoreEmulatorHost\"", null))
+        variant.manifestPlaceholders.put("profileableByShell", measured.toString())
+
+        val networkSecurityConfig = tasks.register<NetworkSecurityConfigTask>(
+            "generate${variant.name.replaceFirstChar { it.uppercase() }}NetworkSecurityConfig"
+        ) {
+            cleartextHost.set(if (measured) firestoreEmulatorHost else "")
+        }
+        variant.sources.res?.addGeneratedSourceDirectory(networkSecurityConfig,
+            NetworkSecurityConfigTask::outputDirectory)
     }
 }
 
@@ -41,6 +125,11 @@ dependencies {
     // AndroidX Core
     implementation("androidx.appcompat:appcompat:1.6.1")
     implementation("androidx.core:core:1.12.0")
+    // Orientation EXIF des photos choisies (PhotoIngestor)
+    implementation("androidx.exifinterface:exifinterface:1.3.7")
+    // Installe le profil de référence (généré par :macrobenchmark) hors Play Store
+    implementation("androidx.profileinstaller:profileinstaller:1.3.1")
+    baselineProfile(project(":macrobenchmark"))
 
     // Material Design
     implementation("com.google.android.material:material:1.11.0")
@@ -62,4 +151,5 @@ dependencies {
     testImplementation("junit:junit:4.13.2")
     androidTestImplementation("androidx.test.ext:junit:1.1.5")
     androidTestImplementation("androidx.test.espresso:espresso-core:3.5.1")
+    androidTestImplementation("androidx.benchmark:benchmark-junit4:1.2.3")
 }
\ No newline at end of file
@@ -18,4 +18,12 @@
 
 # If you keep the line number information, uncomment this to
 # hide the original source file name.
-#-renamesourcefileattribute SourceFile
\ No newline at end of file
+#-renamesourcefileattribute SourceFile
+# Firestore lit et écrit Contact par réflexion (getters / setters, @PropertyName)
+-keepattributes Signature,*Annotation*
+-keepclassmembers class com.nada.mycontact.models.Contact {
+    public <init>();
+    public *** get*();
+    public *** is*();
+    public void set*(***);
+}
@@ -0,0 +1,100 @@
+package com.nada.mycontact.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.LinearGradient;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.nada.mycontact.models.ContactSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Avatar d'une ligne de la liste, de load() à la livraison sur le thread principal, avec et sans
+// le cache mémoire d'AvatarLoader. Sans cache : décodage BitmapFactory sous-échantillonné et
+// retour du bitmap dans BitmapPool à chaque opération. La photo est enregistrée une fois dans
+// l'émulateur Firestore ; ses octets restent dans le cache de PhotoStore, aucun réseau n'est mesuré.
+@RunWith(AndroidJUnit4.class)
+public class AvatarLoaderBenchmark {
+
+    private static final long TIMEOUT_S = 30;
+
+    @Rule
+    public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private AvatarLoader loader;
+    private ContactSummary contact;
+
+    @Before
+    public void setUp() throws Exception {
+        String hash = Tasks.await(PhotoStore.getInstance().savePhoto(photo()), TIMEOUT_S, TimeUnit.SECONDS);
+        contact = new ContactSummary("benchmark", "Nada", "Zirari", "+33 6 00 00 00 00", false, false, hash);
+        loader = AvatarLoader.getInstance();
+    }
+
+    @After
+    public void tearDown() {
+        loader.setMemoryCacheEnabled(true);
+    }
+
+    @Test
+    public void loadWithMemoryCache() throws InterruptedException {
+        loader.setMemoryCacheEnabled(true);
+        // Premier chargement : décodé puis mis en cache
+        loadAndRelease();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            loadAndRelease();
+        }
+    }
+
+    @Test
+    public void loadWithoutMemoryCache() throws InterruptedException {
+        loader.setMemoryCacheEnabled(false);
+        int hits = loader.getHitCount();
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            loadAndRelease();
+        }
+        assertEquals("Avatar served from the disabled cache", hits, loader.getHitCount());
+    }
+
+    // Comme une ligne recyclée : le bitmap livré est rendu aussitôt
+    private void loadAndRelease() throws InterruptedException {
+        CountDownLatch delivered = new CountDownLatch(1);
+        Bitmap[] shown = new Bitmap[1];
+        loader.load(contact, PhotoStore.THUMB_SIZE, bitmap -> {
+            shown[0] = bitmap;
+            delivered.countDown();
+        });
+        if (!delivered.await(TIMEOUT_S, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Avatar not delivered after " + TIMEOUT_S + " s");
+        }
+        loader.release(shown[0]);
+    }
+
+    // Dégradé plutôt qu'un aplat : une image qui se compresse comme une vraie photo
+    private static Bitmap photo() {
+        Bitmap bitmap = Bitmap.createBitmap(PhotoStore.FULL_SIZE, PhotoStore.FULL_SIZE, Bitmap.Config.ARGB_8888);
+        Paint paint = new Paint();
+        paint.setShader(new LinearGradient(0, 0, PhotoStore.FULL_SIZE, PhotoStore.FULL_SIZE,
+                Color.rgb(230, 120, 40), Color.rgb(40, 90, 200), Shader.TileMode.CLAMP));
+        new Canvas(bitmap).drawPaint(paint);
+        return bitmap;
+    }
+}
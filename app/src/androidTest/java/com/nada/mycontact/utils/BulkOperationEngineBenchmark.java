@@ -0,0 +1,121 @@
+package com.nada.mycontact.utils;
+
+import static org.junit.Assert.assertFalse;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+// Débit de BulkOperationEngine contre l'émulateur Firestore : une opération = favori posé sur
+// toute la sélection, jusqu'à l'acquittement de tous les lots (débit = taille / temps mesuré).
+// Contacts semés à part (ids bulk-*) et supprimés à la fin : le carnet de :macrobenchmark n'est pas touché.
+@RunWith(Parameterized.class)
+public class BulkOperationEngineBenchmark {
+
+    private static final long TIMEOUT_S = 120;
+    private static final int BATCH_LIMIT = 500;
+
+    // Un lot, puis plusieurs lots en parallèle (MAX_CONCURRENT_BATCHES)
+    @Parameterized.Parameters(name = "size={0}")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][]{{500}, {2000}, {5000}});
+    }
+
+    @Rule
+    public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int size;
+    private final List<String> ids = new ArrayList<>();
+
+    public BulkOperationEngineBenchmark(int size) {
+        this.size = size;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        for (int i = 0; i < size; i++) {
+            ids.add(String.format(Locale.ROOT, "bulk-%05d", i));
+        }
+        FirebaseFirestore db = FirebaseHelper.getInstance().getDb();
+        CollectionReference contacts = db.collection(FirebaseHelper.getInstance().getCollectionName());
+        for (int start = 0; start < size; start += BATCH_LIMIT) {
+            WriteBatch batch = db.batch();
+            for (String id : ids.subList(start, Math.min(start + BATCH_LIMIT, size))) {
+                batch.set(contacts.document(id), contact(id));
+            }
+            Tasks.await(batch.commit(), TIMEOUT_S, TimeUnit.SECONDS);
+        }
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        run(BulkOperationEngine.Operation.DELETE);
+    }
+
+    @Test
+    public void toggleFavorite() throws InterruptedException {
+        BenchmarkState state = benchmarkRule.getState();
+        boolean favorite = true;
+        while (state.keepRunning()) {
+            run(favorite ? BulkOperationEngine.Operation.FAVORITE : BulkOperationEngine.Operation.UNFAVORITE);
+            favorite = !favorite;
+        }
+    }
+
+    // Lancé sur le thread principal comme depuis MainActivity : les callbacks des lots y arrivent aussi
+    private void run(BulkOperationEngine.Operation operation) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        BulkOperationEngine.Result[] result = new BulkOperationEngine.Result[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                BulkOperationEngine.getInstance().run(operation, ids, new BulkOperationEngine.Listener() {
+                    @Override
+                    public void onProgress(int completed, int total) {
+                    }
+
+                    @Override
+                    public void onComplete(BulkOperationEngine.Result r) {
+                        result[0] = r;
+                        done.countDown();
+                    }
+                }));
+        if (!done.await(TIMEOUT_S, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(operation + " not acknowledged after " + TIMEOUT_S
+                    + " s (is the Firestore emulator running?)");
+        }
+        assertFalse(operation + " failed: " + result[0].getLastError(), result[0].hasFailures());
+    }
+
+    // Mêmes champs que ceux écrits par l'app pour un contact
+    private static Map<String, Object> contact(String id) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(ContactSummaryMapper.FIELD_FIRST_NAME, "Bulk");
+        fields.put(ContactSummaryMapper.FIELD_LAST_NAME, id);
+        fields.put(ContactSummaryMapper.FIELD_PHONE_NUMBER, "+33 6 00 00 00 00");
+        fields.put(ContactSummaryMapper.FIELD_FAVORITE, false);
+        fields.put(ContactSummaryMapper.FIELD_BLOCKED, false);
+        fields.put(FirebaseHelper.FIELD_SORT_NAME, "bulk " + id);
+        return fields;
+    }
+}
@@ -0,0 +1,110 @@
+package com.nada.mycontact.utils;
+
+import android.graphics.Bitmap;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Random;
+
+// Chemins de décodage d'ImageUtils sur l'appareil (BitmapFactory, BitmapPool) : pleine résolution
+// (bytesToBitmap), sous-échantillonné (decodeSampledBitmap), pleine résolution puis redimensionnée
+// (resizeBitmap) et ancien champ photoBase64 (base64ToBitmap). Chaque bitmap décodé est rendu
+// à BitmapPool comme dans l'app, le décodage suivant peut donc le réutiliser.
+@RunWith(Parameterized.class)
+public class ImageUtilsBenchmark {
+
+    private static final int JPEG_QUALITY = 80;
+
+    // Photo stockée (PhotoStore.FULL_SIZE) ou photo d'appareil importée d'une vCard,
+    // vers l'avatar de la liste (PhotoStore.THUMB_SIZE) ou la photo pleine taille
+    @Parameterized.Parameters(name = "source={0},target={1}")
+    public static Collection<Object[]> sizes() {
+        return Arrays.asList(new Object[][]{
+                {PhotoStore.FULL_SIZE, PhotoStore.THUMB_SIZE},
+                {PhotoStore.FULL_SIZE, PhotoStore.FULL_SIZE},
+                {2048, PhotoStore.THUMB_SIZE},
+                {2048, PhotoStore.FULL_SIZE}
+        });
+    }
+
+    @Rule
+    public final BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final int sourceSize;
+    private final int targetSize;
+    private byte[] jpeg;
+    private String base64;
+
+    public ImageUtilsBenchmark(int sourceSize, int targetSize) {
+        this.sourceSize = sourceSize;
+        this.targetSize = targetSize;
+    }
+
+    @Before
+    public void setUp() {
+        Bitmap photo = photo(sourceSize, sourceSize * 3 / 4);
+        jpeg = ImageUtils.bitmapToBytes(photo, JPEG_QUALITY);
+        base64 = ImageUtils.bitmapToBase64(photo);
+        photo.recycle();
+    }
+
+    @Test
+    public void fullDecode() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            BitmapPool.getInstance().put(ImageUtils.bytesToBitmap(jpeg));
+        }
+    }
+
+    @Test
+    public void sampledDecode() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            BitmapPool.getInstance().put(ImageUtils.decodeSampledBitmap(jpeg, targetSize, targetSize));
+        }
+    }
+
+    @Test
+    public void fullDecodeThenResize() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            Bitmap decoded = ImageUtils.bytesToBitmap(jpeg);
+            Bitmap resized = ImageUtils.resizeBitmap(decoded, targetSize);
+            if (resized != decoded) resized.recycle();
+            BitmapPool.getInstance().put(decoded);
+        }
+    }
+
+    @Test
+    public void legacyBase64Decode() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            BitmapPool.getInstance().put(ImageUtils.base64ToBitmap(base64));
+        }
+    }
+
+    // Dégradé bruité (graine fixe) : se compresse comme une photo, pas comme un aplat
+    private static Bitmap photo(int width, int height) {
+        int[] pixels = new int[width * height];
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int noise = random.nextInt(32);
+                int r = (x * 255 / width + noise) & 0xFF;
+                int g = (y * 255 / height + noise) & 0xFF;
+                int b = ((x + y) * 127 / width + noise) & 0xFF;
+                pixels[y * width + x] = 0xFF000000 | (r << 16) | (g << 8) | b;
+            }
+        }
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+}
@@ -5,9 +5,12 @@ import android.content.Intent;
 import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 import android.text.Editable;
 import android.text.TextWatcher;
+import android.util.Log;
+import android.view.Choreographer;
 import android.view.View;
 import android.widget.Toast;
 
@@ -19,21 +22,34 @@ import com.google.firebase.Timestamp;
 import com.nada.mycontact.R;
 import com.nada.mycontact.databinding.ActivityAddEditContactBinding;
 import com.nada.mycontact.models.Contact;
+import com.nada.mycontact.utils.BirthdayReminders;
+import com.nada.mycontact.utils.BitmapPool;
+import com.nada.mycontact.utils.ContactChangeTracker;
+import com.nada.mycontact.utils.ContactRepository;
+import com.nada.mycontact.utils.ContactWriteQueue;
 import com.nada.mycontact.utils.FirebaseHelper;
 import com.nada.mycontact.utils.ImageUtils;
+import com.nada.mycontact.utils.PhotoIngestor;
+import com.nada.mycontact.utils.PhotoStore;
 
-import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
+import java.util.Map;
 
 public class AddEditContactActivity extends AppCompatActivity {
 
+    private static final String TAG = "AddEditContact";
     private ActivityAddEditContactBinding binding;
     private Contact currentContact;
+    // Valeurs chargées, pour n'envoyer que les champs modifiés
+    private Map<String, Object> originalFields;
     private boolean isEditMode = false;
     private Bitmap selectedPhotoBitmap;
+    // Photo existante décodée dans un bitmap de BitmapPool, rendue quand elle n'est plus affichée
+    private Bitmap loadedPhotoBitmap;
+    private boolean photoChanged = false;
     private Calendar selectedBirthday;
     private ActivityResultLauncher<Intent> imagePickerLauncher;
 
@@ -55,20 +71,55 @@ public class AddEditContactActivity extends AppCompatActivity {
                 result -> {
                     if (result.getResultCode() == RESULT_OK && result.getData() != null) {
                         Uri imageUri = result.getData().getData();
-                        try {
-                            Bitmap bitmap = MediaStore.Images.Media.getBitmap(getContentResolver(), imageUri);
-                            selectedPhotoBitmap = ImageUtils.resizeBitmap(bitmap, 400);
-                            binding.photoImageView.setImageBitmap(selectedPhotoBitmap);
-                            binding.photoInitialsText.setVisibility(View.GONE);
-                        } catch (IOException e) {
-                            e.printStackTrace();
-                            Toast.makeText(this, "Erreur lors du chargement de l'image", Toast.LENGTH_SHORT).show();
+                        if (imageUri != null) {
+                            ingestPhoto(imageUri);
                         }
                     }
                 }
         );
     }
 
+    // Décodage à la taille utile en arrière-plan ; latence mesurée jusqu'à la frame qui affiche l'aperçu
+    private void ingestPhoto(Uri imageUri) {
+        long pickedAt = SystemClock.uptimeMillis();
+        PhotoIngestor.getInstance().ingest(this, imageUri, PhotoStore.FULL_SIZE, new PhotoIngestor.Listener() {
+            @Override
+            public void onPhotoReady(Bitmap bitmap) {
+                if (isFinishing() || isDestroyed()) return;
+                selectedPhotoBitmap = bitmap;
+                photoChanged = true;
+                binding.photoImageView.setImageBitmap(selectedPhotoBitmap);
+                binding.photoInitialsText.setVisibility(View.GONE);
+                releaseLoadedPhoto();
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+                        Log.d(TAG, "Photo pick to preview: " + (SystemClock.uptimeMillis() - pickedAt) + " ms"));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (isFinishing() || isDestroyed()) return;
+                Toast.makeText(AddEditContactActivity.this, "Erreur lors du chargement de l'image",
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void releaseLoadedPhoto() {
+        if (loadedPhotoBitmap != null) {
+            BitmapPool.getInstance().put(loadedPhotoBitmap);
+            loadedPhotoBitmap = null;
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (loadedPhotoBitmap != null) {
+            binding.photoImageView.setImageDrawable(null);
+            releaseLoadedPhoto();
+        }
+    }
+
     private void checkEditMode() {
         Intent intent = getIntent();
 
@@ -78,7 +129,7 @@ public class AddEditContactActivity extends AppCompatActivity {
         if (contactId != null && !contactId.isEmpty()) {
             isEditMode = true;
             binding.titleText.setText(R.string.edit_contact);
-            loadContactFromFirestore(contactId);
+            loadContact(contactId);
         } else {
             isEditMode = false;
             currentContact = new Contact();
@@ -86,25 +137,28 @@ public class AddEditContactActivity extends AppCompatActivity {
         }
     }
 
-    private void loadContactFromFirestore(String contactId) {
-        FirebaseHelper.getInstance()
-                .getDb()
-                .collection(FirebaseHelper.getInstance().getCollectionName())
-                .document(contactId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        currentContact = documentSnapshot.toObject(Contact.class);
-                        if (currentContact != null) {
-                            currentContact.setId(documentSnapshot.getId());
-                            populateFields();
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Toast.makeText(this, "Erreur de chargement", Toast.LENGTH_SHORT).show();
+    // Servi depuis ContactRepository (déjà reçu par la liste) ; lecture réseau seulement si absent.
+    // Livré une seule fois : le formulaire n'est jamais rempli de nouveau par-dessus la saisie
+    private void loadContact(String contactId) {
+        ContactRepository.getInstance().getContactOnce(contactId, new ContactRepository.OnContactLoadedListener() {
+            @Override
+            public void onContactLoaded(Contact contact) {
+                if (contact == null) {
+                    Toast.makeText(AddEditContactActivity.this, "Contact introuvable", Toast.LENGTH_SHORT).show();
                     finish();
-                });
+                    return;
+                }
+                currentContact = contact;
+                originalFields = ContactChangeTracker.fieldsOf(contact);
+                populateFields();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(AddEditContactActivity.this, "Erreur de chargement", Toast.LENGTH_SHORT).show();
+                finish();
+            }
+        });
     }
 
     private void populateFields() {
@@ -120,8 +174,22 @@ public class AddEditContactActivity extends AppCompatActivity {
         binding.favoriteSwitch.setChecked(currentContact.isFavorite());
 
         // Photo
-        if (currentContact.getPhotoBase64() != null && !currentContact.getPhotoBase64().isEmpty()) {
+        if (currentContact.getPhotoHash() != null && !currentContact.getPhotoHash().isEmpty()) {
+            updateInitialsDisplay();
+            PhotoStore.getInstance().loadFull(currentContact.getPhotoHash(), data -> {
+                // Ne pas écraser une photo choisie pendant le chargement
+                if (photoChanged) return;
+                Bitmap photo = ImageUtils.bytesToBitmap(data);
+                if (photo != null) {
+                    selectedPhotoBitmap = photo;
+                    loadedPhotoBitmap = photo;
+                    binding.photoImageView.setImageBitmap(selectedPhotoBitmap);
+                    binding.photoInitialsText.setVisibility(View.GONE);
+                }
+            });
+        } else if (currentContact.getPhotoBase64() != null && !currentContact.getPhotoBase64().isEmpty()) {
             selectedPhotoBitmap = ImageUtils.base64ToBitmap(currentContact.getPhotoBase64());
+            loadedPhotoBitmap = selectedPhotoBitmap;
             binding.photoImageView.setImageBitmap(selectedPhotoBitmap);
             binding.photoInitialsText.setVisibility(View.GONE);
         } else {
@@ -241,6 +309,7 @@ public class AddEditContactActivity extends AppCompatActivity {
         currentContact.setAddress(binding.addressEditText.getText().toString().trim());
         currentContact.setNotes(binding.notesEditText.getText().toString().trim());
         currentContact.setFavorite(binding.favoriteSwitch.isChecked());
+        currentContact.setSortName(currentContact.getNormalizedName().getSearchForm());
         currentContact.setUpdatedAt(Timestamp.now());
 
         // Birthday
@@ -248,12 +317,26 @@ public class AddEditContactActivity extends AppCompatActivity {
             currentContact.setBirthday(new Timestamp(selectedBirthday.getTime()));
         }
 
-        // Photo
-        if (selectedPhotoBitmap != null) {
-            String photoBase64 = ImageUtils.bitmapToBase64(selectedPhotoBitmap);
-            currentContact.setPhotoBase64(photoBase64);
+        // Photo : envoyée dans PhotoStore seulement si elle a changé
+        if (photoChanged && selectedPhotoBitmap != null) {
+            binding.btnSave.setEnabled(false);
+            PhotoStore.getInstance()
+                    .savePhoto(selectedPhotoBitmap)
+                    .addOnSuccessListener(photoHash -> {
+                        currentContact.setPhotoHash(photoHash);
+                        currentContact.setPhotoBase64(null);
+                        persistContact();
+                    })
+                    .addOnFailureListener(e -> {
+                        binding.btnSave.setEnabled(true);
+                        Toast.makeText(this, "Erreur: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    });
+        } else {
+            persistContact();
         }
+    }
 
+    private void persistContact() {
         // Sauvegarder dans Firestore
         if (isEditMode) {
             updateContactInFirestore();
@@ -264,11 +347,15 @@ public class AddEditContactActivity extends AppCompatActivity {
     }
 
     private void addContactToFirestore() {
+        Log.d(TAG, "Adding contact: ~" + ContactChangeTracker.estimateBytes(ContactChangeTracker.fieldsOf(currentContact))
+                + " bytes");
         FirebaseHelper.getInstance()
                 .getDb()
                 .collection(FirebaseHelper.getInstance().getCollectionName())
                 .add(currentContact)
                 .addOnSuccessListener(documentReference -> {
+                    BirthdayReminders.getInstance(this).update(documentReference.getId(),
+                            currentContact.getFullName(), currentContact.getBirthday());
                     Toast.makeText(this, "Contact ajouté", Toast.LENGTH_SHORT).show();
                     finish();
                 })
@@ -277,18 +364,26 @@ public class AddEditContactActivity extends AppCompatActivity {
                 });
     }
 
+    // update() des seuls champs modifiés (la photo n'est plus renvoyée si elle n'a pas changé)
     private void updateContactInFirestore() {
-        FirebaseHelper.getInstance()
-                .getDb()
-                .collection(FirebaseHelper.getInstance().getCollectionName())
-                .document(currentContact.getId())
-                .set(currentContact)
+        Map<String, Object> changes = ContactChangeTracker.diff(originalFields, currentContact);
+        if (changes.isEmpty()) {
+            finish();
+            return;
+        }
+
+        ContactWriteQueue queue = ContactWriteQueue.getInstance();
+        queue.update(currentContact.getId(), changes)
                 .addOnSuccessListener(aVoid -> {
+                    BirthdayReminders.getInstance(this).update(currentContact.getId(),
+                            currentContact.getFullName(), currentContact.getBirthday());
                     Toast.makeText(this, "Contact mis à jour", Toast.LENGTH_SHORT).show();
                     finish();
                 })
                 .addOnFailureListener(e -> {
+                    binding.btnSave.setEnabled(true);
                     Toast.makeText(this, "Erreur: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                 });
+        queue.flush(currentContact.getId());
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.nada.mycontact.activities;
 
 import android.content.Intent;
+import android.graphics.Bitmap;
 import android.net.Uri;
 import android.os.Bundle;
 import android.util.Log;
@@ -13,10 +14,19 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.nada.mycontact.R;
 import com.nada.mycontact.databinding.ActivityContactDetailsBinding;
 import com.nada.mycontact.models.Contact;
+import com.nada.mycontact.utils.BirthdayReminders;
+import com.nada.mycontact.utils.BitmapPool;
+import com.nada.mycontact.utils.ContactExporter;
+import com.nada.mycontact.utils.ContactRepository;
+import com.nada.mycontact.utils.ContactSummaryMapper;
+import com.nada.mycontact.utils.ContactWriteQueue;
 import com.nada.mycontact.utils.FirebaseHelper;
 import com.nada.mycontact.utils.ImageUtils;
+import com.nada.mycontact.utils.MemoryTrimmer;
+import com.nada.mycontact.utils.PhotoStore;
 
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Locale;
 
 public class ContactDetailsActivity extends AppCompatActivity {
@@ -25,12 +35,15 @@ public class ContactDetailsActivity extends AppCompatActivity {
     private ActivityContactDetailsBinding binding;
     private Contact contact;
     private String contactId;
+    // Photo décodée dans un bitmap de BitmapPool, rendue quand elle est remplacée ou à la fermeture
+    private Bitmap shownPhoto;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         binding = ActivityContactDetailsBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
+        MemoryTrimmer.register(this);
 
         Log.d(TAG, "=== ContactDetailsActivity Created ===");
 
@@ -41,8 +54,8 @@ public class ContactDetailsActivity extends AppCompatActivity {
         Log.d(TAG, "Received contactId: " + contactId);
 
         if (contactId != null && !contactId.isEmpty()) {
+            // Le contact est chargé dans onResume()
             setupListeners();
-            loadContactFromFirestore();
         } else {
             Log.e(TAG, "ERROR: No contactId provided!");
             Toast.makeText(this, "Erreur: ID manquant", Toast.LENGTH_SHORT).show();
@@ -50,40 +63,30 @@ public class ContactDetailsActivity extends AppCompatActivity {
         }
     }
 
-    private void loadContactFromFirestore() {
-        Log.d(TAG, "Loading contact from Firestore with ID: " + contactId);
+    // Servi depuis ContactRepository (déjà reçu par la liste) ; lecture réseau seulement si absent
+    private void loadContact() {
+        Log.d(TAG, "Loading contact with ID: " + contactId);
+
+        ContactRepository.getInstance().getContact(contactId, new ContactRepository.OnContactLoadedListener() {
+            @Override
+            public void onContactLoaded(Contact loaded) {
+                if (loaded == null) {
+                    Log.e(TAG, "ERROR: Document does not exist");
+                    showErrorAndFinish();
+                    return;
+                }
+                contact = loaded;
+                Log.d(TAG, "Contact loaded: " + contact.getFullName());
+                displayContactInfo();
+            }
 
-        FirebaseHelper.getInstance()
-                .getDb()
-                .collection(FirebaseHelper.getInstance().getCollectionName())
-                .document(contactId)
-                .get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    Log.d(TAG, "Firestore query successful");
-
-                    if (documentSnapshot.exists()) {
-                        Log.d(TAG, "Document exists");
-
-                        contact = documentSnapshot.toObject(Contact.class);
-
-                        if (contact != null) {
-                            contact.setId(documentSnapshot.getId());
-                            Log.d(TAG, "Contact loaded: " + contact.getFullName());
-                            displayContactInfo();
-                        } else {
-                            Log.e(TAG, "ERROR: Failed to parse contact");
-                            showErrorAndFinish();
-                        }
-                    } else {
-                        Log.e(TAG, "ERROR: Document does not exist");
-                        showErrorAndFinish();
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "ERROR loading contact", e);
-                    Toast.makeText(this, "Erreur: " + e.getMessage(), Toast.LENGTH_LONG).show();
-                    finish();
-                });
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "ERROR loading contact", e);
+                Toast.makeText(ContactDetailsActivity.this, "Erreur: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                finish();
+            }
+        });
     }
 
     private void setupListeners() {
@@ -136,12 +139,19 @@ public class ContactDetailsActivity extends AppCompatActivity {
         binding.nameText.setText(contact.getFullName());
 
         // Photo ou initiales
-        if (contact.getPhotoBase64() != null && !contact.getPhotoBase64().isEmpty()) {
+        if (contact.getPhotoHash() != null && !contact.getPhotoHash().isEmpty()) {
+            showInitials();
+            String photoHash = contact.getPhotoHash();
+            PhotoStore.getInstance().loadFull(photoHash, data -> {
+                if (contact == null || !photoHash.equals(contact.getPhotoHash())) return;
+                Bitmap photo = ImageUtils.bytesToBitmap(data);
+                if (photo != null) {
+                    showPhoto(photo);
+                }
+            });
+        } else if (contact.getPhotoBase64() != null && !contact.getPhotoBase64().isEmpty()) {
             try {
-                binding.photoImageView.setImageBitmap(
-                        ImageUtils.base64ToBitmap(contact.getPhotoBase64())
-                );
-                binding.initialsText.setVisibility(View.GONE);
+                showPhoto(ImageUtils.base64ToBitmap(contact.getPhotoBase64()));
             } catch (Exception e) {
                 Log.e(TAG, "Error loading photo", e);
                 showInitials();
@@ -219,6 +229,16 @@ public class ContactDetailsActivity extends AppCompatActivity {
         Log.d(TAG, "Contact info displayed successfully");
     }
 
+    private void showPhoto(Bitmap photo) {
+        Bitmap previous = shownPhoto;
+        shownPhoto = photo;
+        binding.photoImageView.setImageBitmap(photo);
+        binding.initialsText.setVisibility(View.GONE);
+        if (previous != null && previous != photo) {
+            BitmapPool.getInstance().put(previous);
+        }
+    }
+
     private void showInitials() {
         binding.initialsText.setText(contact.getInitials());
         binding.initialsText.setVisibility(View.VISIBLE);
@@ -292,14 +312,29 @@ public class ContactDetailsActivity extends AppCompatActivity {
             shareText.append("Website: ").append(contact.getUrl()).append("\n");
         }
 
-        // Créer l'intent de partage
-        Intent shareIntent = new Intent(Intent.ACTION_SEND);
-        shareIntent.setType("text/plain");
-        shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Contact: " + contact.getFullName());
-        shareIntent.putExtra(Intent.EXTRA_TEXT, shareText.toString());
+        // Fiche vCard (avec la photo) jointe au texte, pour l'importer directement dans un carnet
+        new ContactExporter(this, ContactExporter.Format.VCARD, Collections.singletonList(contactId),
+                new ContactExporter.Listener() {
+                    @Override
+                    public void onProgress(int exported) {
+                    }
+
+                    @Override
+                    public void onComplete(Uri uri, int exported) {
+                        if (isFinishing() || isDestroyed()) return;
+                        Intent shareIntent = ContactExporter.shareIntent(uri, ContactExporter.Format.VCARD);
+                        shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Contact: " + contact.getFullName());
+                        shareIntent.putExtra(Intent.EXTRA_TEXT, shareText.toString());
+
+                        // Afficher le sélecteur de partage
+                        startActivity(Intent.createChooser(shareIntent, "Partager le contact via"));
+                    }
 
-        // Afficher le sélecteur de partage
-        startActivity(Intent.createChooser(shareIntent, "Partager le contact via"));
+                    @Override
+                    public void onError(Exception e) {
+                        Toast.makeText(ContactDetailsActivity.this, "Erreur: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                }).start();
     }
 
     // ✨ NOUVEAU : Bloquer/Débloquer le contact
@@ -311,15 +346,14 @@ public class ContactDetailsActivity extends AppCompatActivity {
 
         Log.d(TAG, "Toggling block status to: " + newBlockedState);
 
-        // Mettre à jour dans Firestore
-        FirebaseHelper.getInstance()
-                .getDb()
-                .collection(FirebaseHelper.getInstance().getCollectionName())
-                .document(contactId)
-                .update("blocked", newBlockedState)
+        // Affiché tout de suite ; des clics rapprochés partent en un seul update()
+        updateBlockButton();
+        ContactWriteQueue.getInstance()
+                .update(contactId, Collections.<String, Object>singletonMap(ContactSummaryMapper.FIELD_BLOCKED, newBlockedState))
                 .addOnSuccessListener(aVoid -> {
+                    // Seule la dernière valeur est annoncée
+                    if (contact.isBlocked() != newBlockedState) return;
                     Log.d(TAG, "Block status updated successfully");
-                    updateBlockButton();
 
                     String message = newBlockedState ?
                             contact.getFullName() + " a été bloqué" :
@@ -327,10 +361,12 @@ public class ContactDetailsActivity extends AppCompatActivity {
                     Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
                 })
                 .addOnFailureListener(e -> {
+                    if (contact.isBlocked() != newBlockedState) return;
                     Log.e(TAG, "Error updating block status", e);
                     Toast.makeText(this, "Erreur: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     // Annuler le changement local
                     contact.setBlocked(!newBlockedState);
+                    updateBlockButton();
                 });
     }
 
@@ -366,6 +402,8 @@ public class ContactDetailsActivity extends AppCompatActivity {
                 .delete()
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Contact deleted successfully");
+                    ContactRepository.getInstance().remove(contactId);
+                    BirthdayReminders.getInstance(this).remove(contactId);
                     Toast.makeText(this, "Contact supprimé", Toast.LENGTH_SHORT).show();
                     finish();
                 })
@@ -385,7 +423,17 @@ public class ContactDetailsActivity extends AppCompatActivity {
         super.onResume();
         Log.d(TAG, "onResume");
         if (contactId != null) {
-            loadContactFromFirestore();
+            loadContact();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (shownPhoto != null) {
+            binding.photoImageView.setImageDrawable(null);
+            BitmapPool.getInstance().put(shownPhoto);
+            shownPhoto = null;
         }
     }
 }
\ No newline at end of file
@@ -1,40 +1,105 @@
 package com.nada.mycontact.activities;
 
+import android.Manifest;
+import android.app.role.RoleManager;
 import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.Debug;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
+import android.view.Choreographer;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Toast;
 
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.view.ActionMode;
+import androidx.core.content.ContextCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.material.snackbar.Snackbar;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.ListenerRegistration;
+import com.nada.mycontact.BuildConfig;
 import com.nada.mycontact.R;
 import com.nada.mycontact.adapters.ContactsAdapter;
 import com.nada.mycontact.databinding.ActivityMainBinding;
 import com.nada.mycontact.models.Contact;
 import com.nada.mycontact.models.ContactListItem;
+import com.nada.mycontact.models.ContactSummary;
+import com.nada.mycontact.utils.BirthdayReminders;
+import com.nada.mycontact.utils.BitmapPool;
+import com.nada.mycontact.utils.BulkOperationEngine;
+import com.nada.mycontact.utils.CallerIndex;
+import com.nada.mycontact.utils.ContactDeltaEngine;
+import com.nada.mycontact.utils.ContactExporter;
+import com.nada.mycontact.utils.ContactImporter;
+import com.nada.mycontact.utils.ContactPager;
+import com.nada.mycontact.utils.ContactRepository;
+import com.nada.mycontact.utils.ContactSearchIndex;
+import com.nada.mycontact.utils.ContactSummaryMapper;
+import com.nada.mycontact.utils.DuplicateMerger;
 import com.nada.mycontact.utils.FirebaseHelper;
-
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import com.nada.mycontact.utils.LocalContactStore;
+import com.nada.mycontact.utils.MemoryTrimmer;
+import com.nada.mycontact.utils.NameNormalizer;
+import com.nada.mycontact.utils.PhotoStore;
+import com.nada.mycontact.utils.SearchExecutor;
+
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class MainActivity extends AppCompatActivity {
 
     private static final String TAG = "MainActivity";
+    private static final String PREFS_NAME = "mycontact";
+    private static final String PREF_SORT_NAME_BACKFILLED = "sort_name_backfilled";
+    private static final String PREF_NOTIFICATIONS_ASKED = "notifications_asked";
+    private static final int PREFETCH_DISTANCE = 20;
+    private static final int MAX_DUPLICATE_GROUPS_SHOWN = 10;
     private ActivityMainBinding binding;
     private ContactsAdapter adapter;
-    private List<Contact> contactsList = new ArrayList<>();
-    private List<Contact> filteredContactsList = new ArrayList<>();
-    private List<ContactListItem> displayItems = new ArrayList<>();
-    private ListenerRegistration contactsListener;
-    private boolean showFavoritesOnly = false;
+    private final ContactDeltaEngine deltaEngine = new ContactDeltaEngine();
+    private final ContactSearchIndex searchIndex = new ContactSearchIndex();
+    private SearchExecutor searchExecutor;
+    private String currentQuery = "";
+    private ContactPager contactPager;
+    private LocalContactStore localStore;
+    // Contacts affichés depuis le disque et pas encore confirmés par Firestore (id -> sortName)
+    private final Map<String, String> provisionalSortNames = new HashMap<>();
+    private boolean firstRowLogged = false;
+    private long snapshotParseNanos = 0;
+    private int snapshotParseCount = 0;
+    // Vue filtrée (favoris, bloqués...) : le pager écoute la requête filtrée côté serveur,
+    // seuls les contacts retenus sont téléchargés
+    private FirebaseHelper.ContactFilter contactFilter = FirebaseHelper.ContactFilter.ALL;
+    // Mode sélection multiple (appui long sur un contact)
+    private ActionMode selectionMode;
+
+    private static final String[] IMPORT_MIME_TYPES = {
+            "text/vcard", "text/x-vcard", "text/csv", "text/comma-separated-values", "text/plain"
+    };
+    private final ActivityResultLauncher<String[]> importLauncher =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::importContacts);
+    private final ActivityResultLauncher<Intent> screeningRoleLauncher =
+            registerForActivityResult(new ActivityResultContracts.StartActivityForResult(),
+                    result -> onScreeningRoleResult(result.getResultCode() == RESULT_OK));
+    private final ActivityResultLauncher<String> notificationPermissionLauncher =
+            registerForActivityResult(new ActivityResultContracts.RequestPermission(),
+                    granted -> Log.d(TAG, "Notification permission " + (granted ? "granted" : "denied")));
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -47,11 +112,24 @@ public class MainActivity extends AppCompatActivity {
         setupRecyclerView();
         setupSearchView();
         setupFab();
+        setupToolbarMenu();
+        loadLocalContacts();
         loadContacts();
+        setupPaging();
+        // Mesure de développement : ni en release ni dans le build "benchmark"
+        if (BuildConfig.DEBUG) {
+            setupScrollStats();
+        }
+        MemoryTrimmer.register(this);
+        setupBirthdayReminders();
     }
 
     private void setupRecyclerView() {
-        adapter = new ContactsAdapter(displayItems, contact -> {
+        adapter = new ContactsAdapter(contact -> {
+            if (selectionMode != null) {
+                toggleSelection(contact);
+                return;
+            }
             Log.d(TAG, "Contact clicked: " + contact.getFullName());
             Log.d(TAG, "Contact ID: " + contact.getId());
 
@@ -65,13 +143,121 @@ public class MainActivity extends AppCompatActivity {
             startActivity(intent);
         });
 
+        adapter.setOnContactLongClickListener(contact -> {
+            if (selectionMode == null) {
+                selectionMode = startSupportActionMode(selectionCallback);
+            }
+            toggleSelection(contact);
+        });
+
         binding.recyclerViewContacts.setLayoutManager(new LinearLayoutManager(this));
         binding.recyclerViewContacts.setAdapter(adapter);
 
         Log.d(TAG, "RecyclerView configured");
     }
 
+    private void toggleSelection(ContactSummary contact) {
+        adapter.toggleSelection(contact.getId());
+        int count = adapter.getSelectedIds().size();
+        if (count == 0) {
+            selectionMode.finish();
+        } else {
+            selectionMode.setTitle(count + " sélectionné(s)");
+        }
+    }
+
+    private final ActionMode.Callback selectionCallback = new ActionMode.Callback() {
+        @Override
+        public boolean onCreateActionMode(ActionMode mode, Menu menu) {
+            mode.getMenuInflater().inflate(R.menu.menu_bulk_actions, menu);
+            return true;
+        }
+
+        @Override
+        public boolean onPrepareActionMode(ActionMode mode, Menu menu) {
+            return false;
+        }
+
+        @Override
+        public boolean onActionItemClicked(ActionMode mode, MenuItem item) {
+            Set<String> ids = adapter.getSelectedIds();
+            List<ContactSummary> selected = deltaEngine.getContacts(ids);
+            int itemId = item.getItemId();
+
+            if (itemId == R.id.action_bulk_favorite) {
+                // Tous déjà favoris : on les retire, sinon on les ajoute
+                boolean allFavorite = true;
+                for (ContactSummary contact : selected) {
+                    allFavorite &= contact.isFavorite();
+                }
+                runBulkOperation(allFavorite ? BulkOperationEngine.Operation.UNFAVORITE
+                        : BulkOperationEngine.Operation.FAVORITE, ids);
+                return true;
+            } else if (itemId == R.id.action_bulk_block) {
+                boolean allBlocked = true;
+                for (ContactSummary contact : selected) {
+                    allBlocked &= contact.isBlocked();
+                }
+                runBulkOperation(allBlocked ? BulkOperationEngine.Operation.UNBLOCK
+                        : BulkOperationEngine.Operation.BLOCK, ids);
+                return true;
+            } else if (itemId == R.id.action_bulk_share) {
+                mode.finish();
+                exportContacts(ContactExporter.Format.VCARD, ids);
+                return true;
+            } else if (itemId == R.id.action_bulk_delete) {
+                new AlertDialog.Builder(MainActivity.this)
+                        .setTitle("Supprimer les contacts")
+                        .setMessage("Êtes-vous sûr de vouloir supprimer " + ids.size() + " contact(s) ?")
+                        .setPositiveButton("Supprimer", (dialog, which) ->
+                                runBulkOperation(BulkOperationEngine.Operation.DELETE, ids))
+                        .setNegativeButton("Annuler", null)
+                        .show();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void onDestroyActionMode(ActionMode mode) {
+            adapter.clearSelection();
+            selectionMode = null;
+        }
+    };
+
+    private void runBulkOperation(BulkOperationEngine.Operation operation, Set<String> ids) {
+        if (selectionMode != null) {
+            selectionMode.finish();
+        }
+        BulkOperationEngine.getInstance().run(operation, ids, bulkListener);
+    }
+
+    private final BulkOperationEngine.Listener bulkListener = new BulkOperationEngine.Listener() {
+        @Override
+        public void onProgress(int done, int total) {
+            Log.d(TAG, "Bulk operation progress: " + done + "/" + total);
+        }
+
+        @Override
+        public void onComplete(BulkOperationEngine.Result result) {
+            if (isFinishing() || isDestroyed()) return;
+            if (!result.hasFailures()) {
+                Toast.makeText(MainActivity.this, result.getSucceededIds().size() + " contact(s) mis à jour",
+                        Toast.LENGTH_SHORT).show();
+                return;
+            }
+            // Échec partiel : relancer seulement les contacts des lots en erreur
+            Snackbar.make(binding.getRoot(), result.getFailedIds().size() + " contact(s) non modifiés",
+                            Snackbar.LENGTH_INDEFINITE)
+                    .setAction(R.string.retry, v ->
+                            BulkOperationEngine.getInstance().retry(result, bulkListener))
+                    .show();
+        }
+    };
+
     private void setupSearchView() {
+        searchExecutor = new SearchExecutor(searchIndex, deltaEngine, this::onSearchResults);
+
         binding.searchView.setOnQueryTextListener(new androidx.appcompat.widget.SearchView.OnQueryTextListener() {
             @Override
             public boolean onQueryTextSubmit(String query) {
@@ -80,12 +266,23 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                filterContacts(newText);
+                filterContacts(newText, true);
                 return true;
             }
         });
     }
 
+    // Résultats calculés en arrière-plan par SearchExecutor ; seule la dernière requête arrive ici
+    private void onSearchResults(String query, List<ContactListItem> items, long startedAt) {
+        if (!query.equals(currentQuery)) return;
+        submitDisplayList(items, startedAt);
+
+        // Charger aussi la plage qui commence par la requête, sans charger les pages précédentes
+        if (!query.isEmpty() && Character.isLetter(query.charAt(0))) {
+            contactPager.jumpTo(NameNormalizer.fold(query));
+        }
+    }
+
     private void setupFab() {
         binding.fabAddContact.setOnClickListener(v -> {
             Intent intent = new Intent(MainActivity.this, AddEditContactActivity.class);
@@ -93,144 +290,491 @@ public class MainActivity extends AppCompatActivity {
         });
     }
 
+    // Affichage immédiat depuis la copie locale (déjà lue pendant le splash)
+    private void loadLocalContacts() {
+        localStore = LocalContactStore.getInstance(this);
+        localStore.loadFirstPage(contacts -> {
+            for (ContactSummary contact : contacts) {
+                // Firestore a pu répondre avant le disque : sa version est plus récente
+                if (deltaEngine.contains(contact.getId())) continue;
+                deltaEngine.upsert(contact);
+                searchIndex.put(contact.getId(), contact.getNormalizedName().getSearchForm(), contact.getPhoneNumber());
+                provisionalSortNames.put(contact.getId(), contact.getNormalizedName().getSearchForm());
+            }
+            Log.d(TAG, "Displayed " + contacts.size() + " contacts from local store");
+            refreshDisplayList();
+        });
+    }
+
+    private void setupToolbarMenu() {
+        binding.toolbar.inflateMenu(R.menu.menu_main);
+        binding.toolbar.getMenu().findItem(R.id.action_call_screening).setVisible(canRequestScreeningRole());
+        binding.toolbar.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == R.id.action_import) {
+                importLauncher.launch(IMPORT_MIME_TYPES);
+                return true;
+            } else if (item.getItemId() == R.id.action_export_vcard) {
+                exportContacts(ContactExporter.Format.VCARD, null);
+                return true;
+            } else if (item.getItemId() == R.id.action_export_csv) {
+                exportContacts(ContactExporter.Format.CSV, null);
+                return true;
+            } else if (item.getItemId() == R.id.action_call_screening) {
+                requestScreeningRole();
+                return true;
+            } else if (item.getItemId() == R.id.action_find_duplicates) {
+                findDuplicates();
+                return true;
+            } else if (filterFor(item.getItemId()) != null) {
+                item.setChecked(true);
+                setContactFilter(filterFor(item.getItemId()));
+                return true;
+            }
+            return false;
+        });
+    }
+
+    // Entrées du sous-menu "Afficher" ; null pour les autres entrées
+    private static FirebaseHelper.ContactFilter filterFor(int itemId) {
+        if (itemId == R.id.filter_all) return FirebaseHelper.ContactFilter.ALL;
+        if (itemId == R.id.filter_favorites) return FirebaseHelper.ContactFilter.FAVORITES;
+        if (itemId == R.id.filter_blocked) return FirebaseHelper.ContactFilter.BLOCKED;
+        if (itemId == R.id.filter_not_blocked) return FirebaseHelper.ContactFilter.NOT_BLOCKED;
+        return null;
+    }
+
+    // Import en arrière-plan ; les contacts arrivent dans la liste par les listeners de pages
+    private void importContacts(Uri uri) {
+        if (uri == null) return;
+
+        Snackbar progress = Snackbar.make(binding.getRoot(), "Import en cours...", Snackbar.LENGTH_INDEFINITE);
+        progress.show();
+        new ContactImporter(this, uri, new ContactImporter.Listener() {
+            @Override
+            public void onProgress(int imported) {
+                progress.setText(imported + " contacts importés...");
+            }
+
+            @Override
+            public void onComplete(int imported, int skipped) {
+                progress.dismiss();
+                Toast.makeText(MainActivity.this, imported + " contacts importés"
+                        + (skipped > 0 ? " (" + skipped + " ignorés)" : ""), Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                progress.dismiss();
+                // La reprise se fera au prochain import du même fichier
+                Toast.makeText(MainActivity.this, "Erreur d'import: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        }).start();
+    }
+
+    // contactIds null : tout le carnet ; le fichier est écrit en arrière-plan puis partagé
+    private void exportContacts(ContactExporter.Format format, Set<String> contactIds) {
+        Snackbar progress = Snackbar.make(binding.getRoot(), "Export en cours...", Snackbar.LENGTH_INDEFINITE);
+        progress.show();
+        new ContactExporter(this, format, contactIds, new ContactExporter.Listener() {
+            @Override
+            public void onProgress(int exported) {
+                progress.setText(exported + " contacts exportés...");
+            }
+
+            @Override
+            public void onComplete(Uri uri, int exported) {
+                progress.dismiss();
+                if (isFinishing() || isDestroyed()) return;
+                startActivity(Intent.createChooser(ContactExporter.shareIntent(uri, format),
+                        "Partager " + exported + " contact(s) via"));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                progress.dismiss();
+                Toast.makeText(MainActivity.this, "Erreur d'export: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        }).start();
+    }
+
+    // Rôle de filtrage d'appels (Android 10+) : BlockedCallScreeningService reçoit alors chaque appel entrant
+    private boolean canRequestScreeningRole() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) return false;
+        RoleManager roleManager = getSystemService(RoleManager.class);
+        return roleManager != null && roleManager.isRoleAvailable(RoleManager.ROLE_CALL_SCREENING)
+                && !roleManager.isRoleHeld(RoleManager.ROLE_CALL_SCREENING);
+    }
+
+    private void requestScreeningRole() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q || !canRequestScreeningRole()) return;
+        RoleManager roleManager = getSystemService(RoleManager.class);
+        screeningRoleLauncher.launch(roleManager.createRequestRoleIntent(RoleManager.ROLE_CALL_SCREENING));
+    }
+
+    private void onScreeningRoleResult(boolean granted) {
+        binding.toolbar.getMenu().findItem(R.id.action_call_screening).setVisible(canRequestScreeningRole());
+        if (granted) {
+            // Index construit tout de suite plutôt qu'au premier appel
+            CallerIndex.getInstance(this);
+            Toast.makeText(this, "Les appels des contacts bloqués seront rejetés", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    // Recherche sur tout le carnet, puis confirmation avant de fusionner chaque groupe en un contact
+    private void findDuplicates() {
+        Snackbar progress = Snackbar.make(binding.getRoot(), "Recherche des doublons...", Snackbar.LENGTH_INDEFINITE);
+        progress.show();
+        DuplicateMerger.getInstance().findDuplicates(new DuplicateMerger.FindListener() {
+            @Override
+            public void onComplete(List<List<Contact>> groups) {
+                progress.dismiss();
+                if (isFinishing() || isDestroyed()) return;
+                if (groups.isEmpty()) {
+                    Toast.makeText(MainActivity.this, "Aucun doublon trouvé", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                showDuplicates(groups);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                progress.dismiss();
+                Toast.makeText(MainActivity.this, "Erreur: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    private void showDuplicates(List<List<Contact>> groups) {
+        int duplicates = 0;
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < groups.size(); i++) {
+            List<Contact> group = groups.get(i);
+            duplicates += group.size() - 1;
+            // Aperçu des premiers groupes seulement
+            if (i < MAX_DUPLICATE_GROUPS_SHOWN) {
+                message.append("• ").append(group.get(0).getFullName()).append(" (").append(group.size()).append(")\n");
+            }
+        }
+        if (groups.size() > MAX_DUPLICATE_GROUPS_SHOWN) {
+            message.append("… et ").append(groups.size() - MAX_DUPLICATE_GROUPS_SHOWN).append(" autre(s) groupe(s)");
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle(duplicates + " doublon(s) dans " + groups.size() + " groupe(s)")
+                .setMessage(message.toString().trim())
+                .setPositiveButton(R.string.merge, (dialog, which) -> mergeDuplicates(groups))
+                .setNegativeButton(R.string.cancel, null)
+                .show();
+    }
+
+    private void mergeDuplicates(List<List<Contact>> groups) {
+        DuplicateMerger.getInstance().merge(this, groups, new DuplicateMerger.MergeListener() {
+            @Override
+            public void onComplete(int mergedGroups, int deletedContacts) {
+                Toast.makeText(MainActivity.this, mergedGroups + " contact(s) fusionnés ("
+                        + deletedContacts + " doublon(s) supprimés)", Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(MainActivity.this, "Erreur de fusion: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
     private void loadContacts() {
         Log.d(TAG, "Loading contacts from Firestore...");
 
-        contactsListener = FirebaseHelper.getInstance()
-                .getDb()
-                .collection(FirebaseHelper.getInstance().getCollectionName())
-                .addSnapshotListener((value, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading contacts", error);
-                        Toast.makeText(this, "Erreur: " + error.getMessage(), Toast.LENGTH_SHORT).show();
-                        return;
+        startPager();
+
+        // Une seule fois : ajouter sortName aux anciens documents pour qu'ils apparaissent dans les pages
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        if (!prefs.getBoolean(PREF_SORT_NAME_BACKFILLED, false)) {
+            ContactPager.backfillSortNames(() ->
+                    prefs.edit().putBoolean(PREF_SORT_NAME_BACKFILLED, true).apply());
+        }
+    }
+
+    // Index des prochains anniversaires tenu à jour par son propre listener, quelle que soit la vue
+    private void setupBirthdayReminders() {
+        BirthdayReminders.getInstance(this).startListening();
+
+        // Android 13+ : autorisation de notifier demandée une seule fois
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU) return;
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        if (prefs.getBoolean(PREF_NOTIFICATIONS_ASKED, false)
+                || ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                == PackageManager.PERMISSION_GRANTED) {
+            return;
+        }
+        prefs.edit().putBoolean(PREF_NOTIFICATIONS_ASKED, true).apply();
+        notificationPermissionLauncher.launch(Manifest.permission.POST_NOTIFICATIONS);
+    }
+
+    // Changer de vue : on repart d'une liste vide avec la requête filtrée ou complète
+    private void setContactFilter(FirebaseHelper.ContactFilter filter) {
+        if (filter == contactFilter) return;
+        contactFilter = filter;
+        Log.d(TAG, "Showing contacts: " + filter);
+
+        if (selectionMode != null) {
+            selectionMode.finish();
+        }
+        contactPager.stop();
+        for (ContactSummary contact : deltaEngine.getContacts()) {
+            ContactRepository.getInstance().unwatch(contact.getId());
+        }
+        deltaEngine.clear();
+        searchIndex.clear();
+        provisionalSortNames.clear();
+        refreshDisplayList();
+
+        startPager();
+    }
+
+    private void startPager() {
+        contactPager = new ContactPager(this, FirebaseHelper.getInstance().getContactsPageQuery(contactFilter),
+                new ContactPager.Listener() {
+                    @Override
+                    public void onContactChanged(DocumentSnapshot doc) {
+                        long start = SystemClock.elapsedRealtimeNanos();
+                        applyChange(doc);
+                        snapshotParseNanos += SystemClock.elapsedRealtimeNanos() - start;
+                        snapshotParseCount++;
                     }
 
-                    if (value != null) {
-                        Log.d(TAG, "Received " + value.size() + " documents");
-
-                        contactsList.clear();
-
-                        for (DocumentSnapshot doc : value.getDocuments()) {
-                            try {
-                                Contact contact = doc.toObject(Contact.class);
-                                if (contact != null) {
-                                    contact.setId(doc.getId());
-                                    contactsList.add(contact);
-                                }
-                            } catch (Exception e) {
-                                Log.e(TAG, "Error parsing contact", e);
-                            }
-                        }
+                    @Override
+                    public void onContactRemoved(String id) {
+                        deltaEngine.remove(id);
+                        searchIndex.remove(id);
+                        ContactRepository.getInstance().unwatch(id);
+                    }
 
-                        // Trier par ordre alphabétique
-                        sortContacts();
+                    @Override
+                    public void onContactDeleted(String id) {
+                        localStore.delete(id);
+                        ContactRepository.getInstance().remove(id);
+                    }
 
-                        // Mettre à jour l'affichage
-                        filteredContactsList.clear();
-                        filteredContactsList.addAll(contactsList);
-                        updateDisplayList();
+                    @Override
+                    public void onPageLoaded(List<DocumentSnapshot> documents, boolean lastPage) {
+                        reconcileLocalContacts(documents, lastPage);
+                    }
+
+                    @Override
+                    public void onChangesApplied() {
+                        if (snapshotParseCount > 0) {
+                            Log.d(TAG, "Applied " + snapshotParseCount + " changes in "
+                                    + snapshotParseNanos / 1000 + " µs");
+                            snapshotParseNanos = 0;
+                            snapshotParseCount = 0;
+                        }
+                        refreshDisplayList();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e(TAG, "Error loading contacts", e);
+                        Toast.makeText(MainActivity.this, "Erreur: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     }
                 });
+        // Liste complète : tous les favoris en tête dès le départ, pas seulement ceux des pages chargées
+        if (contactFilter == FirebaseHelper.ContactFilter.ALL) {
+            contactPager.pin(FirebaseHelper.getInstance().getFavoritesQuery());
+        }
+        contactPager.loadNextPage();
     }
 
-    private void sortContacts() {
-        Collections.sort(contactsList, new Comparator<Contact>() {
+    // Précharger la page suivante avant d'arriver en bas de la liste
+    private void setupPaging() {
+        binding.recyclerViewContacts.addOnScrollListener(new RecyclerView.OnScrollListener() {
             @Override
-            public int compare(Contact c1, Contact c2) {
-                // Favoris en premier
-                if (c1.isFavorite() && !c2.isFavorite()) return -1;
-                if (!c1.isFavorite() && c2.isFavorite()) return 1;
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null || isSearching()) return;
 
-                // Puis ordre alphabétique
-                String name1 = c1.getFullName().toLowerCase();
-                String name2 = c2.getFullName().toLowerCase();
-                return name1.compareTo(name2);
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    contactPager.loadNextPage();
+                }
             }
         });
     }
 
-    private void filterContacts(String query) {
-        filteredContactsList.clear();
-
-        if (query == null || query.isEmpty()) {
-            filteredContactsList.addAll(contactsList);
-        } else {
-            String lowerCaseQuery = query.toLowerCase();
-            for (Contact contact : contactsList) {
-                String fullName = contact.getFullName().toLowerCase();
-                String phone = contact.getPhoneNumber() != null ? contact.getPhoneNumber() : "";
+    // Allocations et GC pendant un défilement (du premier geste à l'arrêt), avec le taux de
+    // réutilisation de BitmapPool : pour comparer le churn d'un fling de 1 000 lignes
+    private void setupScrollStats() {
+        binding.recyclerViewContacts.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            private long startBytes, startGcs;
+            private int startHits, startMisses, startPosition;
+            private boolean scrolling = false;
 
-                if (fullName.contains(lowerCaseQuery) || phone.contains(query)) {
-                    filteredContactsList.add(contact);
+            @Override
+            public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) return;
+                BitmapPool pool = BitmapPool.getInstance();
+
+                if (!scrolling && newState != RecyclerView.SCROLL_STATE_IDLE) {
+                    scrolling = true;
+                    startBytes = runtimeStat("art.gc.bytes-allocated");
+                    startGcs = runtimeStat("art.gc.gc-count");
+                    startHits = pool.getHitCount();
+                    startMisses = pool.getMissCount();
+                    startPosition = layoutManager.findFirstVisibleItemPosition();
+                } else if (scrolling && newState == RecyclerView.SCROLL_STATE_IDLE) {
+                    scrolling = false;
+                    int hits = pool.getHitCount() - startHits;
+                    int requests = hits + pool.getMissCount() - startMisses;
+                    Log.d(TAG, "Scroll: " + Math.abs(layoutManager.findFirstVisibleItemPosition() - startPosition)
+                            + " rows, " + (runtimeStat("art.gc.bytes-allocated") - startBytes) / 1024 + " KB allocated, "
+                            + (runtimeStat("art.gc.gc-count") - startGcs) + " GCs, bitmap pool "
+                            + (requests > 0 ? hits * 100 / requests : 0) + "% hits (" + hits + "/" + requests + ")");
                 }
             }
+        });
+    }
+
+    private static long runtimeStat(String name) {
+        String value = Debug.getRuntimeStat(name);
+        try {
+            return value != null ? Long.parseLong(value) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
         }
+    }
 
-        updateDisplayList();
+    // Les contacts locaux absents de Firestore sur la plage déjà lue ont été supprimés ailleurs
+    private void reconcileLocalContacts(List<DocumentSnapshot> documents, boolean lastPage) {
+        for (DocumentSnapshot doc : documents) {
+            provisionalSortNames.remove(doc.getId());
+        }
+        if (provisionalSortNames.isEmpty()) return;
+
+        String pageEnd = documents.isEmpty() ? null
+                : documents.get(documents.size() - 1).getString(FirebaseHelper.FIELD_SORT_NAME);
+        boolean removed = false;
+        Iterator<Map.Entry<String, String>> it = provisionalSortNames.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            String sortName = entry.getValue();
+            // Égalité exclue : un homonyme peut encore arriver dans la page suivante
+            if (lastPage || (pageEnd != null && sortName != null && sortName.compareTo(pageEnd) < 0)) {
+                deltaEngine.remove(entry.getKey());
+                searchIndex.remove(entry.getKey());
+                localStore.delete(entry.getKey());
+                it.remove();
+                removed = true;
+            }
+        }
+        if (removed) refreshDisplayList();
     }
 
-    private void updateDisplayList() {
-        displayItems.clear();
+    // Projection de liste lue champ par champ : le Contact complet n'est pas désérialisé ici
+    private void applyChange(DocumentSnapshot doc) {
+        try {
+            ContactSummary contact = ContactSummaryMapper.fromSnapshot(doc);
+            // Gardé pour les écrans détails / édition, désérialisé seulement s'ils l'ouvrent
+            ContactRepository.getInstance().put(doc);
+            provisionalSortNames.remove(contact.getId());
+            deltaEngine.upsert(contact);
+            searchIndex.put(contact.getId(), contact.getNormalizedName().getSearchForm(), contact.getPhoneNumber());
+            localStore.upsert(contact);
+
+            // Ancien format : déplacer la photo Base64 dans PhotoStore (seul cas où le document complet est lu)
+            if (ContactSummaryMapper.hasLegacyPhoto(doc)) {
+                Contact legacy = doc.toObject(Contact.class);
+                if (legacy != null) {
+                    legacy.setId(doc.getId());
+                    PhotoStore.getInstance().migrateLegacyPhoto(legacy);
+                }
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error parsing contact", e);
+        }
+    }
 
-        if (filteredContactsList.isEmpty()) {
-            binding.emptyView.setVisibility(View.VISIBLE);
-            binding.recyclerViewContacts.setVisibility(View.GONE);
-            adapter.notifyDataSetChanged();
-            return;
+    private void refreshDisplayList() {
+        if (isSearching()) {
+            filterContacts(currentQuery, false);
+        } else {
+            submitDisplayList(deltaEngine.snapshot());
         }
+    }
 
-        binding.emptyView.setVisibility(View.GONE);
-        binding.recyclerViewContacts.setVisibility(View.VISIBLE);
+    private boolean isSearching() {
+        return currentQuery != null && !currentQuery.isEmpty();
+    }
 
-        // Séparer favoris et autres
-        List<Contact> favorites = new ArrayList<>();
-        List<Contact> others = new ArrayList<>();
+    private void filterContacts(String query, boolean debounce) {
+        currentQuery = query;
 
-        for (Contact contact : filteredContactsList) {
-            if (contact.isFavorite()) {
-                favorites.add(contact);
-            } else {
-                others.add(contact);
+        if (!isSearching()) {
+            // Revenir à la liste complète, tenue à jour par le moteur de deltas
+            searchExecutor.cancel();
+            if (contactPager != null) {
+                contactPager.releaseJumpWindows();
             }
+            submitDisplayList(deltaEngine.snapshot());
+            return;
         }
 
-        // Ajouter la section HIGHLIGHTS (Favoris)
-        if (!favorites.isEmpty()) {
-            displayItems.add(new ContactListItem("HIGHLIGHTS"));
-            for (Contact contact : favorites) {
-                displayItems.add(new ContactListItem(contact));
-            }
+        if (debounce) {
+            searchExecutor.search(query);
+        } else {
+            searchExecutor.searchNow(query);
         }
+    }
 
-        // Ajouter les autres contacts avec headers alphabétiques
-        if (!others.isEmpty()) {
-            char currentLetter = '\0';
-
-            for (Contact contact : others) {
-                String name = contact.getFullName();
-                if (!name.isEmpty()) {
-                    char firstLetter = Character.toUpperCase(name.charAt(0));
+    private void updateEmptyView(int itemCount) {
+        if (itemCount == 0) {
+            binding.emptyView.setVisibility(View.VISIBLE);
+            binding.recyclerViewContacts.setVisibility(View.GONE);
+        } else {
+            binding.emptyView.setVisibility(View.GONE);
+            binding.recyclerViewContacts.setVisibility(View.VISIBLE);
+        }
+    }
 
-                    if (firstLetter != currentLetter) {
-                        currentLetter = firstLetter;
-                        displayItems.add(new ContactListItem(String.valueOf(currentLetter)));
-                    }
+    private void submitDisplayList(List<ContactListItem> items) {
+        submitDisplayList(items, 0);
+    }
 
-                    displayItems.add(new ContactListItem(contact));
-                }
+    // Le diff avec la liste précédente est calculé en arrière-plan par ListAdapter.
+    // Si startedAt est renseigné, on mesure la latence frappe -> première frame affichée.
+    private void submitDisplayList(List<ContactListItem> items, long startedAt) {
+        adapter.submitList(items, () -> {
+            updateEmptyView(items.size());
+            Log.d(TAG, "Display list updated with " + items.size() + " items");
+
+            if (!firstRowLogged && !items.isEmpty()) {
+                firstRowLogged = true;
+                boolean fromDisk = !provisionalSortNames.isEmpty();
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos -> {
+                    Log.d(TAG, "Time to first contact row: "
+                            + (SystemClock.uptimeMillis() - Process.getStartUptimeMillis()) + " ms since process start"
+                            + (fromDisk ? " (local store)" : " (Firestore)"));
+                    // Fin du démarrage (timeToFullDisplay de :macrobenchmark)
+                    reportFullyDrawn();
+                });
             }
-        }
 
-        adapter.notifyDataSetChanged();
-        Log.d(TAG, "Display list updated with " + displayItems.size() + " items");
+            if (startedAt > 0) {
+                Choreographer.getInstance().postFrameCallback(frameTimeNanos ->
+                        Log.d(TAG, "Search latency (keystroke to first frame): "
+                                + (SystemClock.uptimeMillis() - startedAt) + " ms"));
+            }
+        });
     }
 
 
     protected void onDestroy() {
         super.onDestroy();
-        if (contactsListener != null) {
-            contactsListener.remove();
+        if (contactPager != null) {
+            contactPager.stop();
+        }
+        if (searchExecutor != null) {
+            searchExecutor.shutdown();
         }
     }
 
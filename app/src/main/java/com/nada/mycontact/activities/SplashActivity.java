@@ -4,27 +4,25 @@ package com.nada.mycontact.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
 import androidx.appcompat.app.AppCompatActivity;
 import com.nada.mycontact.R;
+import com.nada.mycontact.utils.LocalContactStore;
 
 public class SplashActivity extends AppCompatActivity {
 
-    private static final int SPLASH_DURATION = 2000; // 2 secondes
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash);
 
-        // Transition vers MainActivity après le délai
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
+        // Transition vers MainActivity dès que la première page locale est lue
+        LocalContactStore.getInstance(this).loadFirstPage(contacts -> {
+            if (isFinishing()) return;
             Intent intent = new Intent(SplashActivity.this, MainActivity.class);
             startActivity(intent);
             finish();
             // Animation de transition douce
             overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
-        }, SPLASH_DURATION);
+        });
     }
 }
\ No newline at end of file
@@ -8,34 +8,112 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.nada.mycontact.R;
 import com.nada.mycontact.databinding.ItemContactBinding;
-import com.nada.mycontact.models.Contact;
 import com.nada.mycontact.models.ContactListItem;
-import com.nada.mycontact.utils.ImageUtils;
+import com.nada.mycontact.models.ContactSummary;
+import com.nada.mycontact.utils.AvatarLoader;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
 
-public class ContactsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+public class ContactsAdapter extends ListAdapter<ContactListItem, RecyclerView.ViewHolder> {
+
+    // Rebind partiel : seule la coche de sélection change
+    private static final Object PAYLOAD_SELECTION = new Object();
 
-    private final List<ContactListItem> items;
     private final OnContactClickListener listener;
+    private OnContactLongClickListener longClickListener;
+
+    // Mode sélection multiple (actions groupées)
+    private final Set<String> selectedIds = new HashSet<>();
 
     public interface OnContactClickListener {
-        void onContactClick(Contact contact);
+        void onContactClick(ContactSummary contact);
+    }
+
+    public interface OnContactLongClickListener {
+        void onContactLongClick(ContactSummary contact);
     }
 
-    public ContactsAdapter(List<ContactListItem> items, OnContactClickListener listener) {
-        this.items = items;
+    // Le diff est calculé en arrière-plan par ListAdapter (AsyncListDiffer)
+    private static final DiffUtil.ItemCallback<ContactListItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<ContactListItem>() {
+                @Override
+                public boolean areItemsTheSame(@NonNull ContactListItem oldItem, @NonNull ContactListItem newItem) {
+                    return oldItem.getStableId() == newItem.getStableId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(@NonNull ContactListItem oldItem, @NonNull ContactListItem newItem) {
+                    if (oldItem.getType() == ContactListItem.TYPE_HEADER) {
+                        return oldItem.getHeader().equals(newItem.getHeader());
+                    }
+                    // Seulement les champs affichés dans item_contact.xml
+                    ContactSummary oldContact = oldItem.getContact();
+                    ContactSummary newContact = newItem.getContact();
+                    return oldContact.getFullName().equals(newContact.getFullName())
+                            && oldContact.isFavorite() == newContact.isFavorite()
+                            && oldContact.isBlocked() == newContact.isBlocked()
+                            && Objects.equals(oldContact.getPhotoHash(), newContact.getPhotoHash());
+                }
+            };
+
+    public ContactsAdapter(OnContactClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    public void setOnContactLongClickListener(OnContactLongClickListener longClickListener) {
+        this.longClickListener = longClickListener;
+    }
+
+    public void toggleSelection(String contactId) {
+        if (!selectedIds.remove(contactId)) {
+            selectedIds.add(contactId);
+        }
+        notifySelectionChanged(contactId);
+    }
+
+    public void clearSelection() {
+        Set<String> previous = new HashSet<>(selectedIds);
+        selectedIds.clear();
+        for (String id : previous) {
+            notifySelectionChanged(id);
+        }
+    }
+
+    public Set<String> getSelectedIds() {
+        return new HashSet<>(selectedIds);
+    }
+
+    private void notifySelectionChanged(String contactId) {
+        List<ContactListItem> items = getCurrentList();
+        for (int i = 0; i < items.size(); i++) {
+            ContactListItem item = items.get(i);
+            if (item.getType() == ContactListItem.TYPE_CONTACT && item.getContact().getId().equals(contactId)) {
+                notifyItemChanged(i, PAYLOAD_SELECTION);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getStableId();
     }
 
     @Override
     public int getItemViewType(int position) {
-        return items.get(position).getType();
+        return getItem(position).getType();
     }
 
     @NonNull
@@ -54,7 +132,7 @@ public class ContactsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
 
     @Override
     public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
-        ContactListItem item = items.get(position);
+        ContactListItem item = getItem(position);
 
         if (holder instanceof HeaderViewHolder) {
             ((HeaderViewHolder) holder).bind(item.getHeader());
@@ -64,8 +142,22 @@ public class ContactsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     }
 
     @Override
-    public int getItemCount() {
-        return items.size();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_SELECTION) && holder instanceof ContactViewHolder) {
+            ((ContactViewHolder) holder).bindSelection(getItem(position).getContact());
+            return;
+        }
+        super.onBindViewHolder(holder, position, payloads);
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull RecyclerView.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        // La ligne part pour un autre contact : ne plus attendre son ancien avatar, et rendre le bitmap
+        if (holder instanceof ContactViewHolder) {
+            ((ContactViewHolder) holder).cancelAvatar();
+            ((ContactViewHolder) holder).releasePhoto();
+        }
     }
 
     // ViewHolder pour les headers
@@ -85,27 +177,30 @@ public class ContactsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
     // ViewHolder pour les contacts
     class ContactViewHolder extends RecyclerView.ViewHolder {
         private final ItemContactBinding binding;
+        private AvatarLoader.Request avatarRequest;
+        // Bitmap affiché, réservé auprès d'AvatarLoader jusqu'à releasePhoto()
+        private Bitmap shownPhoto;
 
         public ContactViewHolder(ItemContactBinding binding) {
             super(binding.getRoot());
             this.binding = binding;
         }
 
-        public void bind(Contact contact) {
+        public void bind(ContactSummary contact) {
             // Afficher le nom
             binding.nameText.setText(contact.getFullName());
 
-            // Gérer la photo ou les initiales
-            if (contact.getPhotoBase64() != null && !contact.getPhotoBase64().isEmpty()) {
-                Bitmap photo = ImageUtils.base64ToBitmap(contact.getPhotoBase64());
-                binding.avatarImage.setImageBitmap(photo);
-                binding.initialsText.setVisibility(View.GONE);
-            } else {
-                // Afficher les initiales avec couleur aléatoire
-                binding.initialsText.setText(contact.getInitials());
-                binding.initialsText.setVisibility(View.VISIBLE);
-                binding.avatarImage.setColorFilter(getRandomColor());
-            }
+            // Afficher les initiales avec couleur aléatoire (en attendant la miniature)
+            binding.initialsText.setText(contact.getInitials());
+            binding.initialsText.setVisibility(View.VISIBLE);
+            releasePhoto();
+            binding.avatarImage.setImageResource(R.color.accent_blue);
+            binding.avatarImage.setColorFilter(getRandomColor());
+
+            // Gérer la photo : décodée en arrière-plan à la taille de l'avatar
+            cancelAvatar();
+            int avatarSize = binding.avatarImage.getLayoutParams().width;
+            avatarRequest = AvatarLoader.getInstance().load(contact, avatarSize, this::showPhoto);
 
             // Afficher l'icône favori
             if (contact.isFavorite()) {
@@ -124,12 +219,49 @@ public class ContactsAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolde
             }
             */
 
+            bindSelection(contact);
+
             // Gérer le clic
             binding.getRoot().setOnClickListener(v -> {
                 if (listener != null) {
                     listener.onContactClick(contact);
                 }
             });
+
+            // Appui long : entrer en mode sélection
+            binding.getRoot().setOnLongClickListener(v -> {
+                if (longClickListener == null) return false;
+                longClickListener.onContactLongClick(contact);
+                return true;
+            });
+        }
+
+        void bindSelection(ContactSummary contact) {
+            binding.getRoot().setChecked(selectedIds.contains(contact.getId()));
+        }
+
+        void cancelAvatar() {
+            if (avatarRequest != null) {
+                avatarRequest.cancel();
+                avatarRequest = null;
+            }
+        }
+
+        void releasePhoto() {
+            if (shownPhoto != null) {
+                binding.avatarImage.setImageDrawable(null);
+                AvatarLoader.getInstance().release(shownPhoto);
+                shownPhoto = null;
+            }
+        }
+
+        private void showPhoto(Bitmap photo) {
+            if (photo == null) return;
+            releasePhoto();
+            shownPhoto = photo;
+            binding.avatarImage.clearColorFilter();
+            binding.avatarImage.setImageBitmap(photo);
+            binding.initialsText.setVisibility(View.GONE);
         }
 
         private int getRandomColor() {
@@ -1,6 +1,11 @@
 package com.nada.mycontact.models;
 
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.PropertyName;
+import com.nada.mycontact.utils.FirebaseHelper;
+import com.nada.mycontact.utils.NameNormalizer;
+
 import java.io.Serializable;
 
 public class Contact implements Serializable {
@@ -14,12 +19,17 @@ public class Contact implements Serializable {
     private Timestamp birthday;
     private String notes;
     private boolean isFavorite;
-    private String photoBase64; // Photo encodée en Base64
+    private String photoBase64; // Ancien format : photo encodée en Base64 (migrée vers photoHash)
+    private String photoHash; // Référence de la photo dans PhotoStore
+    private String sortName; // Nom normalisé, clé de tri pour la pagination
     private Timestamp createdAt;
     private Timestamp updatedAt;
 
     private boolean isBlocked;
 
+    // Formes de tri / recherche, calculées une fois puis réutilisées (non stockées dans Firestore)
+    private transient NormalizedName normalizedName;
+
     // Constructeur vide requis pour Firestore
     public Contact() {
     }
@@ -60,6 +70,15 @@ public class Contact implements Serializable {
         return fullName.toString();
     }
 
+    // Nom normalisé (clé de tri, forme de recherche, section), recalculé seulement si le nom change
+    @Exclude
+    public NormalizedName getNormalizedName() {
+        if (normalizedName == null) {
+            normalizedName = NameNormalizer.normalize(getFullName());
+        }
+        return normalizedName;
+    }
+
     // Getters et Setters
     public String getId() {
         return id;
@@ -75,6 +94,7 @@ public class Contact implements Serializable {
 
     public void setFirstName(String firstName) {
         this.firstName = firstName;
+        this.normalizedName = null;
     }
 
     public String getLastName() {
@@ -83,6 +103,7 @@ public class Contact implements Serializable {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        this.normalizedName = null;
     }
 
     public String getPhoneNumber() {
@@ -133,10 +154,13 @@ public class Contact implements Serializable {
         this.notes = notes;
     }
 
+    // Nom stocké explicite : les requêtes filtrent sur ce champ (FirebaseHelper.getFavoritesQuery)
+    @PropertyName(FirebaseHelper.FIELD_FAVORITE)
     public boolean isFavorite() {
         return isFavorite;
     }
 
+    @PropertyName(FirebaseHelper.FIELD_FAVORITE)
     public void setFavorite(boolean favorite) {
         isFavorite = favorite;
     }
@@ -149,6 +173,22 @@ public class Contact implements Serializable {
         this.photoBase64 = photoBase64;
     }
 
+    public String getPhotoHash() {
+        return photoHash;
+    }
+
+    public void setPhotoHash(String photoHash) {
+        this.photoHash = photoHash;
+    }
+
+    public String getSortName() {
+        return sortName;
+    }
+
+    public void setSortName(String sortName) {
+        this.sortName = sortName;
+    }
+
     public Timestamp getCreatedAt() {
         return createdAt;
     }
@@ -164,10 +204,13 @@ public class Contact implements Serializable {
     public void setUpdatedAt(Timestamp updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    @PropertyName(FirebaseHelper.FIELD_BLOCKED)
     public boolean isBlocked() {
         return isBlocked;
     }
 
+    @PropertyName(FirebaseHelper.FIELD_BLOCKED)
     public void setBlocked(boolean blocked) {
         isBlocked = blocked;
     }
@@ -6,18 +6,21 @@ public class ContactListItem {
 
     private int type;
     private String header;
-    private Contact contact;
+    private ContactSummary contact;
+    private final long stableId;
 
     // Constructeur pour header
     public ContactListItem(String header) {
         this.type = TYPE_HEADER;
         this.header = header;
+        this.stableId = hash64("header:" + header);
     }
 
     // Constructeur pour contact
-    public ContactListItem(Contact contact) {
+    public ContactListItem(ContactSummary contact) {
         this.type = TYPE_CONTACT;
         this.contact = contact;
+        this.stableId = hash64("contact:" + contact.getId());
     }
 
     public int getType() {
@@ -28,7 +31,22 @@ public class ContactListItem {
         return header;
     }
 
-    public Contact getContact() {
+    public ContactSummary getContact() {
         return contact;
     }
+
+    // Identifiant stable pour RecyclerView : un header par section, un contact par id Firestore
+    public long getStableId() {
+        return stableId;
+    }
+
+    // FNV-1a 64 bits (hashCode() sur 32 bits provoquerait plus de collisions)
+    private static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
 }
\ No newline at end of file
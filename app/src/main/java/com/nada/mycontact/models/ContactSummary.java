@@ -0,0 +1,99 @@
+package com.nada.mycontact.models;
+
+import com.nada.mycontact.utils.NameNormalizer;
+
+// Projection d'un contact pour la liste : seulement ce qui est affiché, trié ou cherché.
+// Immuable : une modification Firestore produit un nouveau ContactSummary.
+// Le Contact complet (notes, adresse, photo...) n'est chargé que dans les écrans détails / édition.
+public final class ContactSummary {
+    private final String id;
+    private final String firstName;
+    private final String lastName;
+    private final String phoneNumber;
+    private final boolean favorite;
+    private final boolean blocked;
+    private final String photoHash;
+
+    private final String fullName;
+    private final String initials;
+    private final NormalizedName normalizedName;
+
+    public ContactSummary(String id, String firstName, String lastName, String phoneNumber,
+                          boolean favorite, boolean blocked, String photoHash) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.phoneNumber = phoneNumber;
+        this.favorite = favorite;
+        this.blocked = blocked;
+        this.photoHash = photoHash;
+
+        this.fullName = buildFullName(firstName, lastName);
+        this.initials = buildInitials(firstName, lastName);
+        this.normalizedName = NameNormalizer.normalize(fullName);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public boolean isFavorite() {
+        return favorite;
+    }
+
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    public String getPhotoHash() {
+        return photoHash;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getInitials() {
+        return initials;
+    }
+
+    public NormalizedName getNormalizedName() {
+        return normalizedName;
+    }
+
+    // Même règles que Contact.getFullName() / getInitials()
+    static String buildFullName(String firstName, String lastName) {
+        StringBuilder fullName = new StringBuilder();
+        if (firstName != null && !firstName.isEmpty()) {
+            fullName.append(firstName);
+        }
+        if (lastName != null && !lastName.isEmpty()) {
+            if (fullName.length() > 0) fullName.append(" ");
+            fullName.append(lastName);
+        }
+        return fullName.toString();
+    }
+
+    static String buildInitials(String firstName, String lastName) {
+        StringBuilder initials = new StringBuilder();
+        if (firstName != null && !firstName.isEmpty()) {
+            initials.append(firstName.charAt(0));
+        }
+        if (lastName != null && !lastName.isEmpty()) {
+            initials.append(lastName.charAt(0));
+        }
+        return initials.toString().toUpperCase();
+    }
+}
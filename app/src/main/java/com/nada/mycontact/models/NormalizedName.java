@@ -0,0 +1,29 @@
+package com.nada.mycontact.models;
+
+import java.text.CollationKey;
+
+// Formes précalculées d'un nom : clé de tri selon la langue, forme sans accents pour la recherche,
+// et lettre de section ("É" est rangé sous "E")
+public class NormalizedName {
+    private final CollationKey collationKey;
+    private final String searchForm;
+    private final String section;
+
+    public NormalizedName(CollationKey collationKey, String searchForm, String section) {
+        this.collationKey = collationKey;
+        this.searchForm = searchForm;
+        this.section = section;
+    }
+
+    public CollationKey getCollationKey() {
+        return collationKey;
+    }
+
+    public String getSearchForm() {
+        return searchForm;
+    }
+
+    public String getSection() {
+        return section;
+    }
+}
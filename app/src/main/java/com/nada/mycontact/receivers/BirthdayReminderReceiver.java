@@ -0,0 +1,24 @@
+package com.nada.mycontact.receivers;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import com.nada.mycontact.utils.BirthdayReminders;
+
+// Réveil programmé par BirthdayReminders (un seul à la fois), et redémarrage du téléphone
+// qui efface les alarmes : les rappels échus sont envoyés puis l'alarme suivante reprogrammée
+public class BirthdayReminderReceiver extends BroadcastReceiver {
+
+    public static final String ACTION_REMIND = "com.nada.mycontact.action.BIRTHDAY_REMINDER";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (!ACTION_REMIND.equals(action) && !Intent.ACTION_BOOT_COMPLETED.equals(action)) return;
+
+        // Lecture SQLite hors du thread principal
+        PendingResult result = goAsync();
+        BirthdayReminders.getInstance(context).onWakeUp(result::finish);
+    }
+}
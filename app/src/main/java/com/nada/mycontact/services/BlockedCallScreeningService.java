@@ -0,0 +1,76 @@
+package com.nada.mycontact.services;
+
+import android.net.Uri;
+import android.os.Build;
+import android.os.SystemClock;
+import android.telecom.Call;
+import android.telecom.CallScreeningService;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.nada.mycontact.utils.CallerIndex;
+import com.nada.mycontact.utils.PhoneIndex;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Rejette les appels des contacts bloqués. La décision ne lit que CallerIndex (en mémoire,
+// tenu à jour par un listener Firestore) : pas d'attente réseau par appel, réponse bien avant
+// le délai imposé par le système. Actif une fois le rôle de filtrage d'appels accordé (voir MainActivity).
+public class BlockedCallScreeningService extends CallScreeningService {
+    private static final String TAG = "CallScreening";
+
+    // Attente maximale de la construction de l'index au premier appel du processus
+    private static final long INDEX_TIMEOUT_MS = 2000;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Construction lancée dès la liaison du service, avant même l'appel
+        CallerIndex.getInstance(this);
+    }
+
+    @Override
+    public void onScreenCall(@NonNull Call.Details details) {
+        long start = SystemClock.elapsedRealtime();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                && details.getCallDirection() != Call.Details.DIRECTION_INCOMING) {
+            respondToCall(details, new CallResponse.Builder().build());
+            return;
+        }
+
+        Uri handle = details.getHandle();
+        String number = handle != null ? handle.getSchemeSpecificPart() : null;
+        // L'attente éventuelle de l'index ne bloque pas le thread principal
+        executor.execute(() -> {
+            PhoneIndex.Caller caller = null;
+            try {
+                caller = CallerIndex.getInstance(this).lookup(number, INDEX_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Un numéro partagé est rejeté si l'un de ses contacts est bloqué
+            boolean blocked = caller != null && caller.isAnyBlocked();
+
+            CallResponse.Builder response = new CallResponse.Builder();
+            if (blocked) {
+                response.setDisallowCall(true)
+                        .setRejectCall(true)
+                        .setSkipNotification(true);
+            }
+            respondToCall(details, response.build());
+            Log.d(TAG, (blocked ? "Rejected" : "Allowed") + " call from "
+                    + (caller != null ? caller.name : "unknown number") + " in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+        });
+    }
+
+    @Override
+    public void onDestroy() {
+        executor.shutdown();
+        super.onDestroy();
+    }
+}
@@ -0,0 +1,200 @@
+package com.nada.mycontact.utils;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.nada.mycontact.models.ContactSummary;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Chargement des avatars de la liste : décodage en arrière-plan, cache mémoire des bitmaps
+// déjà décodés, et annulation quand la ligne est recyclée pour un autre contact.
+// Chaque bitmap a un compteur de références (le cache en tient une, chaque ligne qui l'affiche une) :
+// quand il n'est plus ni en cache ni affiché, il retourne dans BitmapPool pour le prochain décodage.
+public class AvatarLoader {
+    private static final String TAG = "AvatarLoader";
+    private static AvatarLoader instance;
+
+    private static final int DECODE_THREADS = 2;
+
+    private final ExecutorService decodeExecutor = Executors.newFixedThreadPool(DECODE_THREADS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Bitmap> memoryCache;
+    private boolean memoryCacheEnabled = true;
+    private final Map<Bitmap, Integer> references = new IdentityHashMap<>();
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    // Le bitmap livré est réservé à l'appelant : appeler release() quand il n'est plus affiché
+    public interface OnAvatarLoadedListener {
+        void onAvatarLoaded(Bitmap bitmap);
+    }
+
+    // Une demande de chargement, annulable depuis le ViewHolder
+    public static class Request {
+        private volatile boolean cancelled = false;
+        private Future<?> decodeTask;
+
+        public void cancel() {
+            cancelled = true;
+            if (decodeTask != null) {
+                decodeTask.cancel(false);
+            }
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    private AvatarLoader() {
+        // 1/8 de la mémoire disponible pour les avatars décodés
+        int cacheSize = (int) (Runtime.getRuntime().maxMemory() / 8);
+        memoryCache = new LruCache<String, Bitmap>(cacheSize) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Bitmap oldValue, Bitmap newValue) {
+                if (oldValue != newValue) release(oldValue);
+            }
+        };
+    }
+
+    public static synchronized AvatarLoader getInstance() {
+        if (instance == null) {
+            instance = new AvatarLoader();
+        }
+        return instance;
+    }
+
+    // Retourne null si le contact n'a pas de photo (les initiales restent affichées)
+    public Request load(ContactSummary contact, int sizePx, OnAvatarLoadedListener listener) {
+        String key = cacheKey(contact);
+        if (key == null) return null;
+
+        Request request = new Request();
+
+        Bitmap cached = acquireCached(key);
+        if (cached != null) {
+            listener.onAvatarLoaded(cached);
+            return request;
+        }
+
+        PhotoStore.getInstance().loadThumbnail(contact.getPhotoHash(), data -> {
+            if (request.isCancelled() || data == null) return;
+            decode(request, key, data, sizePx, listener);
+        });
+        return request;
+    }
+
+    // Pour AvatarLoaderBenchmark (src/androidTest) : chargement avec / sans cache mémoire
+    public synchronized void setMemoryCacheEnabled(boolean enabled) {
+        memoryCacheEnabled = enabled;
+        if (!enabled) {
+            memoryCache.evictAll();
+        }
+    }
+
+    // onTrimMemory : moitié du cache quand l'interface est cachée, tout sous forte pression
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            memoryCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            memoryCache.trimToSize(memoryCache.maxSize() / 2);
+        }
+    }
+
+    // La ligne n'affiche plus ce bitmap
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null) return;
+        Integer count = references.get(bitmap);
+        if (count == null) return;
+        if (count > 1) {
+            references.put(bitmap, count - 1);
+        } else {
+            references.remove(bitmap);
+            BitmapPool.getInstance().put(bitmap);
+        }
+    }
+
+    // Lecture du cache et référence prises ensemble : une éviction par un thread de décodage
+    // ne peut pas rendre le bitmap à BitmapPool entre les deux
+    private synchronized Bitmap acquireCached(String key) {
+        Bitmap cached = memoryCacheEnabled ? memoryCache.get(key) : null;
+        if (cached == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        acquire(cached);
+        return cached;
+    }
+
+    // Références du cache et de la livraison prises avant put() : une éviction déclenchée par
+    // ce put() (ou par un autre thread) ne fait jamais tomber le compteur à 0
+    private synchronized void acquireAndCache(String key, Bitmap bitmap) {
+        acquire(bitmap);
+        if (memoryCacheEnabled) {
+            acquire(bitmap);
+            memoryCache.put(key, bitmap);
+        }
+    }
+
+    private synchronized void acquire(Bitmap bitmap) {
+        Integer count = references.get(bitmap);
+        references.put(bitmap, count == null ? 1 : count + 1);
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    private void decode(Request request, String key, byte[] data, int sizePx,
+                        OnAvatarLoadedListener listener) {
+        request.decodeTask = decodeExecutor.submit(() -> {
+            if (request.isCancelled()) return;
+            deliver(request, key, ImageUtils.decodeSampledBitmap(data, sizePx, sizePx), listener);
+        });
+    }
+
+    private void deliver(Request request, String key, Bitmap bitmap, OnAvatarLoadedListener listener) {
+        if (bitmap == null) {
+            Log.w(TAG, "Could not decode avatar " + key);
+            return;
+        }
+        acquireAndCache(key, bitmap);
+        mainHandler.post(() -> {
+            if (!request.isCancelled()) {
+                listener.onAvatarLoaded(bitmap);
+            } else {
+                release(bitmap);
+            }
+        });
+    }
+
+    // Clé = id du contact + hash de la photo, pour qu'une nouvelle photo invalide l'ancienne
+    // (les anciennes photos Base64 n'ont pas de miniature tant qu'elles ne sont pas migrées)
+    private static String cacheKey(ContactSummary contact) {
+        if (contact.getPhotoHash() != null && !contact.getPhotoHash().isEmpty()) {
+            return contact.getId() + ":" + contact.getPhotoHash();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,325 @@
+package com.nada.mycontact.utils;
+
+import android.app.AlarmManager;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.Intent;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Build;
+import android.os.SystemClock;
+import android.text.format.DateUtils;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.nada.mycontact.R;
+import com.nada.mycontact.activities.ContactDetailsActivity;
+import com.nada.mycontact.receivers.BirthdayReminderReceiver;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Rappels d'anniversaire : prochaine occurrence de chaque anniversaire dans une table SQLite
+// indexée sur cette date (index trié, persistant même app fermée), tenue à jour contact par contact
+// par un listener sur les seuls contacts qui ont un anniversaire, indépendant de la liste affichée.
+// Une seule alarme est programmée, pour le plus proche. À son réveil, seuls les anniversaires échus
+// sont lus, notifiés puis reportés d'un an : aucun réveil quotidien, aucun parcours du carnet.
+public class BirthdayReminders extends SQLiteOpenHelper {
+    private static final String TAG = "BirthdayReminders";
+    private static BirthdayReminders instance;
+
+    private static final String DATABASE_NAME = "reminders.db";
+    private static final int DATABASE_VERSION = 1;
+
+    private static final String TABLE_BIRTHDAYS = "birthdays";
+    private static final String COL_ID = "id";
+    private static final String COL_NAME = "name";
+    private static final String COL_MONTH = "month";
+    private static final String COL_DAY = "day";
+    private static final String COL_NEXT_AT = "next_at";
+
+    private static final String CHANNEL_ID = "birthdays";
+
+    // Heure du rappel, le jour même
+    private static final int REMINDER_HOUR = 9;
+    // Rappel manqué depuis plus longtemps (téléphone éteint) : reporté sans notification
+    private static final long MAX_LATENESS_MS = DateUtils.DAY_IN_MILLIS;
+
+    private static class Due {
+        final String contactId;
+        final String name;
+        final int month;
+        final int day;
+        final long nextAt;
+
+        Due(String contactId, String name, int month, int day, long nextAt) {
+            this.contactId = contactId;
+            this.name = name;
+            this.month = month;
+            this.day = day;
+            this.nextAt = nextAt;
+        }
+    }
+
+    private final Context context;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    // Une seule reprogrammation pour une série de modifications (thread disque)
+    private boolean reschedulePending = false;
+    private ListenerRegistration registration;
+    // Lignes des contacts disparus pendant que l'app était fermée : purgées au premier snapshot serveur
+    private boolean pruned = false;
+
+    private BirthdayReminders(Context context) {
+        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this.context = context;
+    }
+
+    public static synchronized BirthdayReminders getInstance(Context context) {
+        if (instance == null) {
+            instance = new BirthdayReminders(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_BIRTHDAYS + " ("
+                + COL_ID + " TEXT PRIMARY KEY, "
+                + COL_NAME + " TEXT, "
+                + COL_MONTH + " INTEGER NOT NULL, "
+                + COL_DAY + " INTEGER NOT NULL, "
+                + COL_NEXT_AT + " INTEGER NOT NULL)");
+        db.execSQL("CREATE INDEX idx_birthdays_next ON " + TABLE_BIRTHDAYS + " (" + COL_NEXT_AT + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_BIRTHDAYS);
+        onCreate(db);
+    }
+
+    // Écoute pour toute la vie du process (requête filtrée, pas tout le carnet) ; callbacks sur le thread disque.
+    // Premier snapshot : tous les anniversaires, les lignes inchangées ne sont pas réécrites.
+    // REMOVED : contact supprimé ou anniversaire effacé.
+    public synchronized void startListening() {
+        if (registration != null) return;
+        registration = FirebaseHelper.getInstance().getBirthdaysQuery()
+                .addSnapshotListener(diskExecutor, (value, error) -> {
+                    if (error != null) {
+                        Log.w(TAG, "Birthday listener failed", error);
+                        return;
+                    }
+                    if (value == null) return;
+                    for (DocumentChange change : value.getDocumentChanges()) {
+                        if (change.getType() == DocumentChange.Type.REMOVED) {
+                            remove(change.getDocument().getId());
+                        } else {
+                            update(change.getDocument());
+                        }
+                    }
+                    if (!pruned && !value.getMetadata().isFromCache()) {
+                        pruned = true;
+                        Set<String> ids = new HashSet<>();
+                        for (DocumentSnapshot doc : value.getDocuments()) {
+                            ids.add(doc.getId());
+                        }
+                        diskExecutor.execute(() -> prune(ids));
+                    }
+                });
+    }
+
+    // Après les update() déjà en file : seules les lignes absentes du serveur sont supprimées
+    private void prune(Set<String> ids) {
+        SQLiteDatabase db = getWritableDatabase();
+        List<String> stale = new ArrayList<>();
+        try (Cursor cursor = db.query(TABLE_BIRTHDAYS, new String[]{COL_ID}, null, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                if (!ids.contains(cursor.getString(0))) stale.add(cursor.getString(0));
+            }
+        }
+        for (String id : stale) {
+            db.delete(TABLE_BIRTHDAYS, COL_ID + " = ?", new String[]{id});
+        }
+        if (!stale.isEmpty()) requestReschedule();
+        Log.d(TAG, ids.size() + " birthdays on the server, " + stale.size() + " stale reminders removed");
+    }
+
+    public void update(DocumentSnapshot doc) {
+        update(doc.getId(), ContactSummaryMapper.fromSnapshot(doc).getFullName(),
+                doc.getTimestamp(ContactChangeTracker.FIELD_BIRTHDAY));
+    }
+
+    // Ajout / modification d'un contact ; seule sa ligne est recalculée
+    public void update(String contactId, String name, Timestamp birthday) {
+        if (birthday == null) {
+            remove(contactId);
+            return;
+        }
+        Calendar date = Calendar.getInstance();
+        date.setTime(birthday.toDate());
+        int month = date.get(Calendar.MONTH);
+        int day = date.get(Calendar.DAY_OF_MONTH);
+
+        diskExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            // Inchangé (cas courant : premier snapshot du listener à chaque lancement) : rien à écrire
+            try (Cursor cursor = db.query(TABLE_BIRTHDAYS, new String[]{COL_NAME, COL_MONTH, COL_DAY},
+                    COL_ID + " = ?", new String[]{contactId}, null, null, null)) {
+                if (cursor.moveToFirst() && cursor.getInt(1) == month && cursor.getInt(2) == day
+                        && Objects.equals(cursor.getString(0), name)) {
+                    return;
+                }
+            }
+
+            ContentValues values = new ContentValues();
+            values.put(COL_ID, contactId);
+            values.put(COL_NAME, name);
+            values.put(COL_MONTH, month);
+            values.put(COL_DAY, day);
+            values.put(COL_NEXT_AT, nextOccurrence(month, day, System.currentTimeMillis()));
+            db.insertWithOnConflict(TABLE_BIRTHDAYS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            requestReschedule();
+        });
+    }
+
+    public void remove(String contactId) {
+        diskExecutor.execute(() -> {
+            if (getWritableDatabase().delete(TABLE_BIRTHDAYS, COL_ID + " = ?", new String[]{contactId}) > 0) {
+                requestReschedule();
+            }
+        });
+    }
+
+    // Alarme ou redémarrage (les alarmes ne survivent pas au reboot) ; done appelé sur le thread disque
+    public void onWakeUp(Runnable done) {
+        diskExecutor.execute(() -> {
+            try {
+                deliverDue();
+                scheduleNext();
+            } finally {
+                done.run();
+            }
+        });
+    }
+
+    // Anniversaires échus uniquement (index sur next_at), notifiés puis reportés à l'an prochain
+    private void deliverDue() {
+        long start = SystemClock.elapsedRealtime();
+        long now = System.currentTimeMillis();
+        SQLiteDatabase db = getWritableDatabase();
+        List<Due> due = new ArrayList<>();
+        try (Cursor cursor = db.query(TABLE_BIRTHDAYS, new String[]{COL_ID, COL_NAME, COL_MONTH, COL_DAY, COL_NEXT_AT},
+                COL_NEXT_AT + " <= ?", new String[]{String.valueOf(now)}, null, null, COL_NEXT_AT)) {
+            while (cursor.moveToNext()) {
+                due.add(new Due(cursor.getString(0), cursor.getString(1), cursor.getInt(2), cursor.getInt(3),
+                        cursor.getLong(4)));
+            }
+        }
+
+        int notified = 0;
+        for (Due birthday : due) {
+            if (now - birthday.nextAt <= MAX_LATENESS_MS) {
+                notifyBirthday(birthday.contactId, birthday.name);
+                notified++;
+            }
+            ContentValues next = new ContentValues();
+            next.put(COL_NEXT_AT, nextOccurrence(birthday.month, birthday.day, now));
+            db.update(TABLE_BIRTHDAYS, next, COL_ID + " = ?", new String[]{birthday.contactId});
+        }
+        Log.d(TAG, notified + " birthday reminders sent, " + (due.size() - notified) + " missed ones skipped in "
+                + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+
+    private void requestReschedule() {
+        if (reschedulePending) return;
+        reschedulePending = true;
+        diskExecutor.execute(() -> {
+            reschedulePending = false;
+            scheduleNext();
+        });
+    }
+
+    // L'alarme unique (même PendingIntent) remplacée par celle du prochain anniversaire
+    private void scheduleNext() {
+        long next = -1;
+        try (Cursor cursor = getReadableDatabase().query(TABLE_BIRTHDAYS, new String[]{COL_NEXT_AT},
+                null, null, null, null, COL_NEXT_AT, "1")) {
+            if (cursor.moveToFirst()) next = cursor.getLong(0);
+        }
+
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        if (alarmManager == null) return;
+        PendingIntent alarm = PendingIntent.getBroadcast(context, 0,
+                new Intent(context, BirthdayReminderReceiver.class).setAction(BirthdayReminderReceiver.ACTION_REMIND),
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+        if (next < 0) {
+            alarmManager.cancel(alarm);
+            Log.d(TAG, "No birthday left, reminder alarm cancelled");
+            return;
+        }
+        // Alarme inexacte (pas de permission d'alarme exacte) mais délivrée même en veille
+        alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next, alarm);
+        Log.d(TAG, "Next birthday reminder in " + (next - System.currentTimeMillis()) / DateUtils.HOUR_IN_MILLIS + " h");
+    }
+
+    private void notifyBirthday(String contactId, String name) {
+        NotificationManagerCompat notifications = NotificationManagerCompat.from(context);
+        // Android 13+ : autorisation refusée
+        if (!notifications.areNotificationsEnabled()) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationManager manager = context.getSystemService(NotificationManager.class);
+            manager.createNotificationChannel(new NotificationChannel(CHANNEL_ID,
+                    context.getString(R.string.birthday_reminders), NotificationManager.IMPORTANCE_DEFAULT));
+        }
+
+        Intent intent = new Intent(context, ContactDetailsActivity.class)
+                .putExtra("contactId", contactId)
+                .addFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent open = PendingIntent.getActivity(context, contactId.hashCode(), intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+        NotificationCompat.Builder notification = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_cake)
+                .setContentTitle("Anniversaire de " + (name != null && !name.isEmpty() ? name : "votre contact"))
+                .setContentText("C'est aujourd'hui !")
+                .setCategory(NotificationCompat.CATEGORY_REMINDER)
+                .setContentIntent(open)
+                .setAutoCancel(true);
+        try {
+            notifications.notify(TAG, contactId.hashCode(), notification.build());
+        } catch (SecurityException e) {
+            Log.w(TAG, "Notification permission revoked", e);
+        }
+    }
+
+    // Prochain anniversaire à REMINDER_HOUR, après now ; 29 février fêté le 28 les autres années
+    static long nextOccurrence(int month, int day, long now) {
+        Calendar today = Calendar.getInstance();
+        today.setTimeInMillis(now);
+        long occurrence = occurrence(today.get(Calendar.YEAR), month, day);
+        return occurrence > now ? occurrence : occurrence(today.get(Calendar.YEAR) + 1, month, day);
+    }
+
+    private static long occurrence(int year, int month, int day) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(year, month, 1, REMINDER_HOUR, 0);
+        calendar.set(Calendar.DAY_OF_MONTH, Math.min(day, calendar.getActualMaximum(Calendar.DAY_OF_MONTH)));
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,145 @@
+package com.nada.mycontact.utils;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+// Bitmaps mutables qui ne sont plus affichés, réutilisés par BitmapFactory (inBitmap) au lieu
+// d'allouer un nouveau tampon de pixels à chaque décodage (voir ImageUtils).
+// Rangés par dimensions + config ; les plus anciens sont libérés au-delà du budget mémoire.
+public class BitmapPool {
+    private static final String TAG = "BitmapPool";
+    private static BitmapPool instance;
+
+    private static final int STATS_INTERVAL = 100;
+
+    private final long maxBytes;
+    private long currentBytes = 0;
+
+    private final Map<String, ArrayDeque<Bitmap>> buckets = new HashMap<>();
+    // Ordre d'arrivée, pour libérer les plus anciens en premier (Bitmap : égalité par identité)
+    private final LinkedHashSet<Bitmap> insertionOrder = new LinkedHashSet<>();
+
+    private int hitCount = 0;
+    private int missCount = 0;
+    private int evictionCount = 0;
+
+    private BitmapPool() {
+        // 1/16 de la mémoire disponible, en plus du cache d'avatars (1/8)
+        maxBytes = Runtime.getRuntime().maxMemory() / 16;
+    }
+
+    public static synchronized BitmapPool getInstance() {
+        if (instance == null) {
+            instance = new BitmapPool();
+        }
+        return instance;
+    }
+
+    // Un bitmap qui peut recevoir un décodage de width x height, ou null
+    public synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        ArrayDeque<Bitmap> bucket = buckets.get(key(width, height, config));
+        Bitmap bitmap = bucket != null ? bucket.pollFirst() : null;
+
+        // Sinon un bitmap un peu plus grand de la même config (le décodeur le redimensionne)
+        if (bitmap == null) {
+            long needed = (long) width * height * bytesPerPixel(config);
+            for (Bitmap candidate : insertionOrder) {
+                int capacity = candidate.getAllocationByteCount();
+                if (candidate.getConfig() == config && capacity >= needed && capacity <= needed * 2) {
+                    bitmap = candidate;
+                    buckets.get(key(candidate.getWidth(), candidate.getHeight(), config)).remove(candidate);
+                    break;
+                }
+            }
+        }
+
+        if (bitmap != null) {
+            insertionOrder.remove(bitmap);
+            currentBytes -= bitmap.getAllocationByteCount();
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        if ((hitCount + missCount) % STATS_INTERVAL == 0) {
+            logStats();
+        }
+        return bitmap;
+    }
+
+    // Bitmap que plus personne n'affiche ; ignoré s'il ne peut pas servir à inBitmap
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+        if (insertionOrder.contains(bitmap)) return;
+        int size = bitmap.getAllocationByteCount();
+        if (size > maxBytes / 8) {
+            bitmap.recycle();
+            return;
+        }
+
+        String key = key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        ArrayDeque<Bitmap> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new ArrayDeque<>();
+            buckets.put(key, bucket);
+        }
+        bucket.addLast(bitmap);
+        insertionOrder.add(bitmap);
+        currentBytes += size;
+        trimToSize(maxBytes);
+    }
+
+    // Appelé depuis onTrimMemory : moitié du pool en arrière-plan, tout sous forte pression
+    public synchronized void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            trimToSize(0);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            trimToSize(maxBytes / 2);
+        }
+        logStats();
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    private void trimToSize(long size) {
+        Iterator<Bitmap> it = insertionOrder.iterator();
+        while (currentBytes > size && it.hasNext()) {
+            Bitmap oldest = it.next();
+            it.remove();
+            buckets.get(key(oldest.getWidth(), oldest.getHeight(), oldest.getConfig())).remove(oldest);
+            currentBytes -= oldest.getAllocationByteCount();
+            oldest.recycle();
+            evictionCount++;
+        }
+    }
+
+    private void logStats() {
+        int requests = hitCount + missCount;
+        Log.d(TAG, "Bitmap pool: " + (requests > 0 ? hitCount * 100 / requests : 0) + "% hits ("
+                + hitCount + "/" + requests + "), " + insertionOrder.size() + " bitmaps, "
+                + currentBytes / 1024 + "/" + maxBytes / 1024 + " KB, " + evictionCount + " evictions");
+    }
+
+    private static String key(int width, int height, Bitmap.Config config) {
+        return width + "x" + height + ":" + config;
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        return 4;
+    }
+}
@@ -0,0 +1,199 @@
+package com.nada.mycontact.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Opérations sur plusieurs contacts (sélection multiple) : découpées en WriteBatch de 500 écritures
+// maximum (limite Firestore), envoyés en parallèle. Un lot échoué n'annule pas les autres :
+// ses contacts sont rendus dans le résultat pour pouvoir relancer seulement ceux-là.
+public class BulkOperationEngine {
+    private static final String TAG = "BulkOperationEngine";
+    private static BulkOperationEngine instance;
+
+    private static final int BATCH_LIMIT = 500;
+    private static final int MAX_CONCURRENT_BATCHES = 4;
+
+    public enum Operation {
+        DELETE, FAVORITE, UNFAVORITE, BLOCK, UNBLOCK
+    }
+
+    public interface Listener {
+        void onProgress(int done, int total);
+
+        void onComplete(Result result);
+    }
+
+    public static class Result {
+        private final Operation operation;
+        private final List<String> succeededIds;
+        private final List<String> failedIds;
+        private final Exception lastError;
+
+        Result(Operation operation, List<String> succeededIds, List<String> failedIds, Exception lastError) {
+            this.operation = operation;
+            this.succeededIds = Collections.unmodifiableList(succeededIds);
+            this.failedIds = Collections.unmodifiableList(failedIds);
+            this.lastError = lastError;
+        }
+
+        public Operation getOperation() {
+            return operation;
+        }
+
+        public List<String> getSucceededIds() {
+            return succeededIds;
+        }
+
+        public List<String> getFailedIds() {
+            return failedIds;
+        }
+
+        public Exception getLastError() {
+            return lastError;
+        }
+
+        public boolean hasFailures() {
+            return !failedIds.isEmpty();
+        }
+    }
+
+    // État d'une exécution : lots restants, lots en cours et résultats accumulés
+    private static class Run {
+        final Operation operation;
+        final List<List<String>> chunks;
+        final Listener listener;
+        final int total;
+        final long startedAt = SystemClock.elapsedRealtime();
+
+        int nextChunk = 0;
+        int inFlight = 0;
+        final List<String> succeeded = new ArrayList<>();
+        final List<String> failed = new ArrayList<>();
+        Exception lastError;
+
+        Run(Operation operation, List<List<String>> chunks, int total, Listener listener) {
+            this.operation = operation;
+            this.chunks = chunks;
+            this.total = total;
+            this.listener = listener;
+        }
+    }
+
+    private BulkOperationEngine() {
+    }
+
+    public static synchronized BulkOperationEngine getInstance() {
+        if (instance == null) {
+            instance = new BulkOperationEngine();
+        }
+        return instance;
+    }
+
+    public void run(Operation operation, Collection<String> contactIds, Listener listener) {
+        List<String> ids = new ArrayList<>(contactIds);
+        List<List<String>> chunks = new ArrayList<>();
+        for (int start = 0; start < ids.size(); start += BATCH_LIMIT) {
+            chunks.add(ids.subList(start, Math.min(start + BATCH_LIMIT, ids.size())));
+        }
+
+        Run run = new Run(operation, chunks, ids.size(), listener);
+        Log.d(TAG, operation + " on " + ids.size() + " contacts in " + chunks.size() + " batches");
+        if (chunks.isEmpty()) {
+            finish(run);
+            return;
+        }
+        for (int i = 0; i < MAX_CONCURRENT_BATCHES && run.nextChunk < chunks.size(); i++) {
+            commitNext(run);
+        }
+    }
+
+    // Relancer uniquement les contacts des lots qui ont échoué
+    public void retry(Result result, Listener listener) {
+        run(result.getOperation(), result.getFailedIds(), listener);
+    }
+
+    private void commitNext(Run run) {
+        List<String> chunk = run.chunks.get(run.nextChunk++);
+        run.inFlight++;
+
+        buildBatch(run.operation, chunk)
+                .commit()
+                .addOnCompleteListener(task -> {
+                    run.inFlight--;
+                    if (task.isSuccessful()) {
+                        run.succeeded.addAll(chunk);
+                        if (run.operation == Operation.DELETE) {
+                            for (String id : chunk) {
+                                ContactRepository.getInstance().remove(id);
+                            }
+                        }
+                    } else {
+                        Log.e(TAG, "Batch of " + chunk.size() + " failed", task.getException());
+                        run.failed.addAll(chunk);
+                        run.lastError = task.getException();
+                    }
+                    run.listener.onProgress(run.succeeded.size() + run.failed.size(), run.total);
+
+                    if (run.nextChunk < run.chunks.size()) {
+                        commitNext(run);
+                    } else if (run.inFlight == 0) {
+                        finish(run);
+                    }
+                });
+    }
+
+    private WriteBatch buildBatch(Operation operation, List<String> ids) {
+        FirebaseFirestore db = FirebaseHelper.getInstance().getDb();
+        CollectionReference collection = db.collection(FirebaseHelper.getInstance().getCollectionName());
+        WriteBatch batch = db.batch();
+
+        Map<String, Object> fields = fieldsFor(operation);
+        for (String id : ids) {
+            DocumentReference ref = collection.document(id);
+            if (operation == Operation.DELETE) {
+                batch.delete(ref);
+            } else {
+                batch.update(ref, fields);
+            }
+        }
+        return batch;
+    }
+
+    private static Map<String, Object> fieldsFor(Operation operation) {
+        Map<String, Object> fields = new HashMap<>();
+        switch (operation) {
+            case FAVORITE:
+            case UNFAVORITE:
+                fields.put(ContactSummaryMapper.FIELD_FAVORITE, operation == Operation.FAVORITE);
+                break;
+            case BLOCK:
+            case UNBLOCK:
+                fields.put(ContactSummaryMapper.FIELD_BLOCKED, operation == Operation.BLOCK);
+                break;
+            default:
+                return fields;
+        }
+        fields.put(ContactChangeTracker.FIELD_UPDATED_AT, Timestamp.now());
+        return fields;
+    }
+
+    private void finish(Run run) {
+        long elapsed = Math.max(1, SystemClock.elapsedRealtime() - run.startedAt);
+        Log.d(TAG, run.operation + " done: " + run.succeeded.size() + " ok, " + run.failed.size()
+                + " failed in " + elapsed + " ms (" + (run.total * 1000L / elapsed) + " ops/s)");
+        run.listener.onComplete(new Result(run.operation, run.succeeded, run.failed, run.lastError));
+    }
+}
@@ -0,0 +1,102 @@
+package com.nada.mycontact.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+// Encodage sous un budget d'octets : recherche dichotomique de la plus haute qualité qui tient.
+// Indépendant du format (Bitmap.compress dans l'app, ImageIO dans les benchmarks JVM).
+// Chaque thread réutilise le même tampon de sortie ; seul le meilleur résultat est copié.
+public final class ByteBudgetEncoder {
+
+    public static final int MIN_QUALITY = 20;
+    public static final int MAX_QUALITY = 90;
+
+    public interface Codec {
+        void encode(int quality, OutputStream out) throws IOException;
+    }
+
+    public static final class Result {
+        public final byte[] bytes;
+        public final int quality;
+        public final int attempts;
+        // Faux si même la qualité minimale dépasse le budget (bytes est alors le plus petit obtenu)
+        public final boolean withinBudget;
+
+        Result(byte[] bytes, int quality, int attempts, boolean withinBudget) {
+            this.bytes = bytes;
+            this.quality = quality;
+            this.attempts = attempts;
+            this.withinBudget = withinBudget;
+        }
+    }
+
+    // ByteArrayOutputStream dont le tableau interne est relu sans copie
+    private static final class PooledBuffer extends ByteArrayOutputStream {
+        PooledBuffer() {
+            super(64 * 1024);
+        }
+
+        byte[] copy() {
+            return Arrays.copyOf(buf, count);
+        }
+    }
+
+    private static final ThreadLocal<PooledBuffer> BUFFER = new ThreadLocal<PooledBuffer>() {
+        @Override
+        protected PooledBuffer initialValue() {
+            return new PooledBuffer();
+        }
+    };
+
+    private ByteBudgetEncoder() {
+    }
+
+    public static Result encode(Codec codec, int byteBudget) throws IOException {
+        return encode(codec, byteBudget, MIN_QUALITY, MAX_QUALITY);
+    }
+
+    public static Result encode(Codec codec, int byteBudget, int minQuality, int maxQuality) throws IOException {
+        PooledBuffer buffer = BUFFER.get();
+        int attempts = 1;
+
+        // Cas courant : la qualité maximale tient déjà, un seul encodage
+        buffer.reset();
+        codec.encode(maxQuality, buffer);
+        if (buffer.size() <= byteBudget) {
+            return new Result(buffer.copy(), maxQuality, attempts, true);
+        }
+
+        byte[] best = null;
+        int bestQuality = -1;
+        int lastQuality = maxQuality;
+        int low = minQuality;
+        int high = maxQuality - 1;
+        while (low <= high) {
+            int quality = (low + high) >>> 1;
+            buffer.reset();
+            codec.encode(quality, buffer);
+            lastQuality = quality;
+            attempts++;
+            if (buffer.size() <= byteBudget) {
+                best = buffer.copy();
+                bestQuality = quality;
+                low = quality + 1;
+            } else {
+                high = quality - 1;
+            }
+        }
+        if (best != null) {
+            return new Result(best, bestQuality, attempts, true);
+        }
+
+        // Rien ne tient : on garde la qualité minimale (en général déjà dans le tampon)
+        if (lastQuality != minQuality) {
+            buffer.reset();
+            codec.encode(minQuality, buffer);
+            attempts++;
+        }
+        return new Result(buffer.copy(), minQuality, attempts, false);
+    }
+}
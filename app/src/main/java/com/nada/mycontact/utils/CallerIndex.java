@@ -0,0 +1,122 @@
+package com.nada.mycontact.utils;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.telephony.TelephonyManager;
+import android.text.TextUtils;
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// PhoneIndex des contacts bloqués de tout le carnet, tenu à jour par un listener sur la requête
+// serveur blocked == true : ne dépend pas des pages chargées par la liste, ni de l'ouverture de l'app.
+// Le cache Firestore sert le premier snapshot hors ligne. Construit une fois par processus ;
+// le listener met l'index à jour sur son propre thread.
+public class CallerIndex {
+    private static final String TAG = "CallerIndex";
+    private static CallerIndex instance;
+
+    // Indicatifs des pays les plus probables ; ailleurs, numéros nationaux indexés sans indicatif
+    private static final Map<String, Integer> COUNTRY_CODES = new HashMap<>();
+
+    static {
+        COUNTRY_CODES.put("fr", 33);
+        COUNTRY_CODES.put("ma", 212);
+        COUNTRY_CODES.put("dz", 213);
+        COUNTRY_CODES.put("tn", 216);
+        COUNTRY_CODES.put("be", 32);
+        COUNTRY_CODES.put("ch", 41);
+        COUNTRY_CODES.put("lu", 352);
+        COUNTRY_CODES.put("mc", 377);
+        COUNTRY_CODES.put("ca", 1);
+        COUNTRY_CODES.put("us", 1);
+        COUNTRY_CODES.put("gb", 44);
+        COUNTRY_CODES.put("es", 34);
+        COUNTRY_CODES.put("pt", 351);
+        COUNTRY_CODES.put("it", 39);
+        COUNTRY_CODES.put("de", 49);
+        COUNTRY_CODES.put("nl", 31);
+    }
+
+    private final PhoneIndex index;
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private final Executor listenerExecutor = Executors.newSingleThreadExecutor();
+
+    private CallerIndex(Context context) {
+        index = new PhoneIndex(defaultCountryCode(context));
+        long start = SystemClock.elapsedRealtime();
+        FirebaseHelper.getInstance().getBlockedContactsQuery()
+                .addSnapshotListener(listenerExecutor, (snapshot, error) -> {
+                    if (error != null) {
+                        // Recherches débloquées : index vide, aucun appel rejeté
+                        Log.e(TAG, "Blocked contacts listener failed", error);
+                        ready.countDown();
+                        return;
+                    }
+                    if (snapshot == null) return;
+                    for (DocumentChange change : snapshot.getDocumentChanges()) {
+                        DocumentSnapshot doc = change.getDocument();
+                        if (change.getType() == DocumentChange.Type.REMOVED) {
+                            index.remove(doc.getId());
+                        } else {
+                            put(doc);
+                        }
+                    }
+                    if (ready.getCount() > 0) {
+                        Log.d(TAG, "Indexed " + snapshot.size() + " blocked contacts in "
+                                + (SystemClock.elapsedRealtime() - start) + " ms"
+                                + (snapshot.getMetadata().isFromCache() ? " (cache)" : ""));
+                        ready.countDown();
+                    }
+                });
+    }
+
+    public static synchronized CallerIndex getInstance(Context context) {
+        if (instance == null) {
+            instance = new CallerIndex(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    // Contact(s) bloqué(s) du numéro, null sinon.
+    // Attente bornée de la construction, au premier appel du processus seulement
+    public PhoneIndex.Caller lookup(String phoneNumber, long timeoutMs) throws InterruptedException {
+        if (!ready.await(timeoutMs, TimeUnit.MILLISECONDS)) {
+            Log.w(TAG, "Caller index not ready after " + timeoutMs + " ms");
+            return null;
+        }
+        return index.lookup(phoneNumber);
+    }
+
+    // Un contact débloqué sort de la requête (REMOVED) : retiré de l'index.
+    // PhoneIndex est synchronisé et remplace l'ancien numéro du contact
+    private void put(DocumentSnapshot doc) {
+        String firstName = doc.getString(ContactSummaryMapper.FIELD_FIRST_NAME);
+        String lastName = doc.getString(ContactSummaryMapper.FIELD_LAST_NAME);
+        String fullName = firstName == null ? lastName
+                : lastName == null ? firstName : firstName + " " + lastName;
+        index.put(doc.getId(), fullName, doc.getString(ContactSummaryMapper.FIELD_PHONE_NUMBER), true);
+    }
+
+    // Pays de la carte SIM, sinon du réseau, sinon de la langue du téléphone
+    private static int defaultCountryCode(Context context) {
+        String country = null;
+        TelephonyManager telephony = (TelephonyManager) context.getSystemService(Context.TELEPHONY_SERVICE);
+        if (telephony != null) {
+            country = telephony.getSimCountryIso();
+            if (TextUtils.isEmpty(country)) country = telephony.getNetworkCountryIso();
+        }
+        if (TextUtils.isEmpty(country)) country = Locale.getDefault().getCountry();
+        Integer code = COUNTRY_CODES.get(country.toLowerCase(Locale.ROOT));
+        return code != null ? code : 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.nada.mycontact.utils;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.FieldValue;
+import com.nada.mycontact.models.Contact;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+// Différence entre le contact chargé et le contact modifié, champ par champ,
+// pour envoyer un update() des seuls champs modifiés au lieu d'un set() du document entier
+public class ContactChangeTracker {
+
+    public static final String FIELD_EMAIL = "email";
+    public static final String FIELD_URL = "url";
+    public static final String FIELD_ADDRESS = "address";
+    public static final String FIELD_BIRTHDAY = "birthday";
+    public static final String FIELD_NOTES = "notes";
+    public static final String FIELD_UPDATED_AT = "updatedAt";
+
+    private ContactChangeTracker() {
+    }
+
+    // Valeurs des champs Firestore du contact, à garder avant de le modifier
+    public static Map<String, Object> fieldsOf(Contact contact) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put(ContactSummaryMapper.FIELD_FIRST_NAME, contact.getFirstName());
+        fields.put(ContactSummaryMapper.FIELD_LAST_NAME, contact.getLastName());
+        fields.put(ContactSummaryMapper.FIELD_PHONE_NUMBER, contact.getPhoneNumber());
+        fields.put(FIELD_EMAIL, contact.getEmail());
+        fields.put(FIELD_URL, contact.getUrl());
+        fields.put(FIELD_ADDRESS, contact.getAddress());
+        fields.put(FIELD_BIRTHDAY, contact.getBirthday());
+        fields.put(FIELD_NOTES, contact.getNotes());
+        fields.put(ContactSummaryMapper.FIELD_FAVORITE, contact.isFavorite());
+        fields.put(ContactSummaryMapper.FIELD_BLOCKED, contact.isBlocked());
+        fields.put(ContactSummaryMapper.FIELD_PHOTO_HASH, contact.getPhotoHash());
+        fields.put(ContactSummaryMapper.FIELD_PHOTO_BASE64, contact.getPhotoBase64());
+        fields.put(FirebaseHelper.FIELD_SORT_NAME, contact.getSortName());
+        return fields;
+    }
+
+    // Champs modifiés ; un champ vidé (null) est supprimé du document
+    public static Map<String, Object> diff(Map<String, Object> original, Contact edited) {
+        Map<String, Object> changes = new HashMap<>();
+        for (Map.Entry<String, Object> field : fieldsOf(edited).entrySet()) {
+            Object before = original.get(field.getKey());
+            Object after = field.getValue();
+            if (!Objects.equals(before, after)) {
+                changes.put(field.getKey(), after != null ? after : FieldValue.delete());
+            }
+        }
+        return changes;
+    }
+
+    // Taille approximative envoyée, selon les règles de taille des documents Firestore
+    // (nom du champ + 1, chaîne UTF-8 + 1, booléen 1, timestamp 8)
+    public static int estimateBytes(Map<String, Object> fields) {
+        int bytes = 0;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            bytes += utf8Length(field.getKey()) + 1;
+            Object value = field.getValue();
+            if (value instanceof String) {
+                bytes += utf8Length((String) value) + 1;
+            } else if (value instanceof Boolean) {
+                bytes += 1;
+            } else if (value instanceof Timestamp) {
+                bytes += 8;
+            } else {
+                bytes += 1;
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(String value) {
+        return value.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
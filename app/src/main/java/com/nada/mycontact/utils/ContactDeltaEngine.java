@@ -0,0 +1,249 @@
+package com.nada.mycontact.utils;
+
+import com.nada.mycontact.models.ContactListItem;
+import com.nada.mycontact.models.ContactSummary;
+
+import java.text.CollationKey;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Liste triée (favoris puis sections alphabétiques) mise à jour contact par contact :
+// une modification coûte une recherche dichotomique au lieu d'un tri complet.
+// Modifiée sur le thread principal, lue aussi par SearchExecutor : méthodes publiques synchronisées.
+public class ContactDeltaEngine {
+
+    public static final String HEADER_FAVORITES = "HIGHLIGHTS";
+
+    private static final int RANK_FAVORITE = 0;
+    private static final int RANK_OTHER = 1;
+
+    private final List<ContactListItem> items = new ArrayList<>();
+    private final Map<String, SortKey> keys = new HashMap<>();
+    private final Map<String, ContactSummary> contacts = new HashMap<>();
+
+    // Clé de tri construite à partir des formes déjà calculées du contact (NormalizedName)
+    private static class SortKey {
+        final int rank;
+        final String section;
+        final CollationKey name;
+        final String id;
+
+        SortKey(ContactSummary contact) {
+            this.rank = contact.isFavorite() ? RANK_FAVORITE : RANK_OTHER;
+            this.section = sectionOf(contact);
+            this.name = contact.getNormalizedName().getCollationKey();
+            this.id = contact.getId();
+        }
+
+        boolean samePosition(SortKey other) {
+            return rank == other.rank && section.equals(other.section) && name.compareTo(other.name) == 0;
+        }
+    }
+
+    // Copie de la liste affichée, à passer à ContactsAdapter.submitList()
+    public synchronized List<ContactListItem> snapshot() {
+        return new ArrayList<>(items);
+    }
+
+    public synchronized int getContactCount() {
+        return keys.size();
+    }
+
+    public synchronized boolean contains(String id) {
+        return keys.containsKey(id);
+    }
+
+    // Contacts dans l'ordre d'affichage
+    public synchronized List<ContactSummary> getContacts() {
+        List<ContactSummary> contacts = new ArrayList<>(keys.size());
+        for (ContactListItem item : items) {
+            if (item.getType() == ContactListItem.TYPE_CONTACT) {
+                contacts.add(item.getContact());
+            }
+        }
+        return contacts;
+    }
+
+    // Sous-ensemble (résultats de l'index de recherche) dans l'ordre d'affichage
+    public synchronized List<ContactSummary> getContacts(Set<String> ids) {
+        List<SortKey> matched = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            SortKey key = keys.get(id);
+            if (key != null) matched.add(key);
+        }
+        Collections.sort(matched, KEY_ORDER);
+
+        List<ContactSummary> result = new ArrayList<>(matched.size());
+        for (SortKey key : matched) {
+            result.add(contacts.get(key.id));
+        }
+        return result;
+    }
+
+    // ADDED ou MODIFIED
+    public synchronized void upsert(ContactSummary contact) {
+        SortKey newKey = new SortKey(contact);
+        SortKey oldKey = keys.get(contact.getId());
+        contacts.put(contact.getId(), contact);
+
+        if (oldKey == null) {
+            keys.put(contact.getId(), newKey);
+            insert(contact, newKey);
+            return;
+        }
+
+        int oldPosition = indexOf(oldKey);
+        keys.put(contact.getId(), newKey);
+
+        // Même place dans la liste : on remplace la ligne sans rien déplacer
+        if (oldKey.samePosition(newKey)) {
+            items.set(oldPosition, new ContactListItem(contact));
+            return;
+        }
+
+        removeAt(oldPosition);
+        insert(contact, newKey);
+    }
+
+    // REMOVED
+    public synchronized void remove(String id) {
+        SortKey key = keys.get(id);
+        if (key == null) return;
+
+        int position = indexOf(key);
+        keys.remove(id);
+        contacts.remove(id);
+        removeAt(position);
+    }
+
+    public synchronized void clear() {
+        keys.clear();
+        contacts.clear();
+        items.clear();
+    }
+
+    // Construire une liste avec headers à partir de contacts déjà triés (résultats de recherche)
+    public static List<ContactListItem> buildItems(List<ContactSummary> sortedContacts) {
+        List<ContactListItem> result = new ArrayList<>();
+        String currentSection = null;
+
+        for (ContactSummary contact : sortedContacts) {
+            String section = sectionOf(contact);
+            if (!section.equals(currentSection)) {
+                currentSection = section;
+                result.add(new ContactListItem(section));
+            }
+            result.add(new ContactListItem(contact));
+        }
+        return result;
+    }
+
+    private static String sectionOf(ContactSummary contact) {
+        if (contact.isFavorite()) return HEADER_FAVORITES;
+        return contact.getNormalizedName().getSection();
+    }
+
+    // Insère le contact (et le header de sa section si besoin)
+    private void insert(ContactSummary contact, SortKey key) {
+        int position = insertionPoint(key);
+
+        if (!sectionExistsBefore(position, key)) {
+            items.add(position, new ContactListItem(key.section));
+            position++;
+        }
+        items.add(position, new ContactListItem(contact));
+    }
+
+    // Retire le contact ; retire aussi le header s'il n'a plus de contacts
+    private void removeAt(int position) {
+        items.remove(position);
+
+        int headerPosition = position - 1;
+        if (headerPosition >= 0 && items.get(headerPosition).getType() == ContactListItem.TYPE_HEADER
+                && (position == items.size() || items.get(position).getType() == ContactListItem.TYPE_HEADER)) {
+            items.remove(headerPosition);
+        }
+    }
+
+    private boolean sectionExistsBefore(int position, SortKey key) {
+        if (position == 0) return false;
+        ContactListItem previous = items.get(position - 1);
+        if (previous.getType() == ContactListItem.TYPE_HEADER) {
+            return compareSection(key, previous.getHeader()) == 0;
+        }
+        SortKey previousKey = keys.get(previous.getContact().getId());
+        return previousKey.rank == key.rank && previousKey.section.equals(key.section);
+    }
+
+    // Première position dont l'élément est strictement après la clé
+    private int insertionPoint(SortKey key) {
+        int low = 0;
+        int high = items.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(key, items.get(mid)) >= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int indexOf(SortKey key) {
+        int low = 0;
+        int high = items.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(key, items.get(mid));
+            if (cmp == 0) return mid;
+            if (cmp > 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        throw new IllegalStateException("Contact not found in list: " + key.id);
+    }
+
+    private int compare(SortKey key, ContactListItem item) {
+        if (item.getType() == ContactListItem.TYPE_HEADER) {
+            int cmp = compareSection(key, item.getHeader());
+            // Le header passe avant tous les contacts de sa section
+            return cmp != 0 ? cmp : 1;
+        }
+        SortKey other = keys.get(item.getContact().getId());
+        return compare(key, other);
+    }
+
+    private static final Comparator<SortKey> KEY_ORDER = ContactDeltaEngine::compare;
+
+    private static int compare(SortKey a, SortKey b) {
+        if (a.rank != b.rank) return a.rank < b.rank ? -1 : 1;
+        int cmp = compareSections(a.section, b.section);
+        if (cmp != 0) return cmp;
+        cmp = a.name.compareTo(b.name);
+        if (cmp != 0) return cmp;
+        return a.id.compareTo(b.id);
+    }
+
+    private static int compareSection(SortKey key, String header) {
+        int headerRank = HEADER_FAVORITES.equals(header) ? RANK_FAVORITE : RANK_OTHER;
+        if (key.rank != headerRank) return key.rank < headerRank ? -1 : 1;
+        if (key.rank == RANK_FAVORITE) return 0;
+        return compareSections(key.section, header);
+    }
+
+    // Ordre alphabétique selon la langue, la section "#" en dernier
+    private static int compareSections(String a, String b) {
+        if (a.equals(b)) return 0;
+        if (a.equals(NameNormalizer.SECTION_OTHER)) return 1;
+        if (b.equals(NameNormalizer.SECTION_OTHER)) return -1;
+        return NameNormalizer.sectionKey(a).compareTo(NameNormalizer.sectionKey(b));
+    }
+}
@@ -0,0 +1,220 @@
+package com.nada.mycontact.utils;
+
+import android.content.Context;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.format.DateUtils;
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.core.content.FileProvider;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.nada.mycontact.models.Contact;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Export vCard / CSV en flux : les contacts sont lus page par page et écrits dans le fichier
+// au fur et à mesure ; seule la page en cours (et ses photos) est en mémoire.
+// Le fichier est partagé par FileProvider (voir res/xml/file_paths.xml).
+public class ContactExporter {
+    private static final String TAG = "ContactExporter";
+
+    private static final int PAGE_SIZE = 100;
+    // Limite Firestore des filtres whereIn
+    private static final int IDS_PER_QUERY = 10;
+    private static final String EXPORT_DIR = "exports";
+    // Exports déjà partagés : supprimés au prochain export passé ce délai
+    private static final long MAX_EXPORT_AGE_MS = DateUtils.DAY_IN_MILLIS;
+
+    public enum Format {
+        VCARD("vcf", "text/x-vcard"),
+        CSV("csv", "text/csv");
+
+        final String extension;
+        final String mimeType;
+
+        Format(String extension, String mimeType) {
+            this.extension = extension;
+            this.mimeType = mimeType;
+        }
+    }
+
+    public interface Listener {
+        void onProgress(int exported);
+
+        void onComplete(Uri uri, int exported);
+
+        void onError(Exception e);
+    }
+
+    private final Context context;
+    private final Format format;
+    private final List<String> contactIds;
+    private final Listener listener;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int exported = 0;
+
+    // contactIds null : tout le carnet
+    public ContactExporter(Context context, Format format, Collection<String> contactIds, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.format = format;
+        this.contactIds = contactIds != null ? new ArrayList<>(contactIds) : null;
+        this.listener = listener;
+    }
+
+    public void start() {
+        worker.execute(this::runExport);
+    }
+
+    public static Intent shareIntent(Uri uri, Format format) {
+        Intent intent = new Intent(Intent.ACTION_SEND);
+        intent.setType(format.mimeType);
+        intent.putExtra(Intent.EXTRA_STREAM, uri);
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
+        return intent;
+    }
+
+    private void runExport() {
+        File directory = new File(context.getCacheDir(), EXPORT_DIR);
+        long start = System.currentTimeMillis();
+
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                throw new IOException("Cannot create " + directory);
+            }
+            deleteOldExports(directory, start);
+            // Un fichier par export : un partage encore en cours n'est jamais réécrit par le suivant
+            File file = File.createTempFile("contacts-", "." + format.extension, directory);
+            try (ContactRecordWriter writer = openWriter(file)) {
+                if (contactIds == null) {
+                    exportAll(writer);
+                } else {
+                    exportSelection(writer);
+                }
+            }
+
+            Log.d(TAG, "Exported " + exported + " contacts (" + file.length() / 1024 + " KB) in "
+                    + (System.currentTimeMillis() - start) + " ms");
+            Uri uri = FileProvider.getUriForFile(context, context.getPackageName() + ".fileprovider", file);
+            int total = exported;
+            mainHandler.post(() -> listener.onComplete(uri, total));
+        } catch (Exception e) {
+            Log.e(TAG, "Export failed after " + exported + " contacts", e);
+            mainHandler.post(() -> listener.onError(e));
+        } finally {
+            worker.shutdown();
+        }
+    }
+
+    private static void deleteOldExports(File directory, long now) {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+        for (File old : files) {
+            if (now - old.lastModified() > MAX_EXPORT_AGE_MS && !old.delete()) {
+                Log.w(TAG, "Could not delete old export " + old.getName());
+            }
+        }
+    }
+
+    private ContactRecordWriter openWriter(File file) throws IOException {
+        BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+        return format == Format.VCARD ? new VCardWriter(out) : new CsvContactWriter(out);
+    }
+
+    // Pages dans l'ordre des ids : un tri sur sortName écarterait les documents qui n'ont pas ce champ
+    private void exportAll(ContactRecordWriter writer) throws Exception {
+        Query query = FirebaseHelper.getInstance().getContactsQuery()
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+        DocumentSnapshot last = null;
+        while (true) {
+            Query page = last != null ? query.startAfter(last) : query;
+            List<DocumentSnapshot> documents = Tasks.await(page.get()).getDocuments();
+            writePage(writer, documents);
+            if (documents.size() < PAGE_SIZE) return;
+            last = documents.get(documents.size() - 1);
+        }
+    }
+
+    private void exportSelection(ContactRecordWriter writer) throws Exception {
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        for (int start = 0; start < contactIds.size(); start += IDS_PER_QUERY) {
+            List<String> ids = contactIds.subList(start, Math.min(start + IDS_PER_QUERY, contactIds.size()));
+            QuerySnapshot snapshot = Tasks.await(helper.getDb()
+                    .collection(helper.getCollectionName())
+                    .whereIn(FieldPath.documentId(), ids)
+                    .get());
+            writePage(writer, snapshot.getDocuments());
+        }
+    }
+
+    // Photos de la page demandées en parallèle, puis écrites dans l'ordre
+    private void writePage(ContactRecordWriter writer, List<DocumentSnapshot> documents)
+            throws IOException, InterruptedException {
+        List<Contact> contacts = new ArrayList<>(documents.size());
+        List<Task<byte[]>> photos = new ArrayList<>(documents.size());
+        for (DocumentSnapshot doc : documents) {
+            Contact contact = doc.toObject(Contact.class);
+            if (contact == null) continue;
+            contact.setId(doc.getId());
+            contacts.add(contact);
+
+            boolean hasPhoto = format == Format.VCARD
+                    && contact.getPhotoHash() != null && !contact.getPhotoHash().isEmpty();
+            photos.add(hasPhoto ? PhotoStore.getInstance().fetchFull(contact.getPhotoHash()) : null);
+        }
+
+        for (int i = 0; i < contacts.size(); i++) {
+            Contact contact = contacts.get(i);
+            writer.write(contact, photoOf(contact, photos.get(i)));
+            exported++;
+        }
+
+        int progress = exported;
+        mainHandler.post(() -> listener.onProgress(progress));
+    }
+
+    private byte[] photoOf(Contact contact, Task<byte[]> photo) throws InterruptedException {
+        if (photo != null) {
+            try {
+                byte[] bytes = Tasks.await(photo);
+                // Photos enregistrées en WebP : converties pour les lecteurs vCard
+                return ImageUtils.isWebp(bytes) ? ImageUtils.toJpeg(bytes) : bytes;
+            } catch (ExecutionException e) {
+                Log.w(TAG, "Could not export photo of " + contact.getId(), e);
+                return null;
+            }
+        }
+        // Ancien format pas encore migré : la photo est déjà en Base64 dans le document
+        if (format == Format.VCARD && contact.getPhotoBase64() != null && !contact.getPhotoBase64().isEmpty()) {
+            try {
+                return Base64.decode(contact.getPhotoBase64(), Base64.DEFAULT);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
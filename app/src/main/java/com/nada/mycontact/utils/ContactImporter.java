@@ -0,0 +1,274 @@
+package com.nada.mycontact.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+import com.nada.mycontact.models.Contact;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+// Import vCard / CSV en flux : le fichier est lu enregistrement par enregistrement,
+// les photos sont redimensionnées sur un pool de threads, et les contacts écrits par WriteBatch.
+// La mémoire reste bornée : la lecture s'arrête tant que trop de photos ou de lots sont en cours.
+// Reprise après interruption : les lots confirmés sont notés dans les préférences, et chaque contact
+// a un id déterministe (fichier + position), un lot renvoyé écrase donc au lieu de dupliquer.
+public class ContactImporter {
+    private static final String TAG = "ContactImporter";
+
+    private static final int CHUNK_SIZE = 400;
+    private static final int MAX_IN_FLIGHT_BATCHES = 2;
+    private static final int PHOTO_THREADS = 2;
+    private static final int MAX_PENDING_PHOTOS = PHOTO_THREADS * 4;
+
+    private static final String PREFS_NAME = "mycontact";
+    private static final String PREF_IMPORT_PREFIX = "import_progress:";
+
+    public interface Listener {
+        void onProgress(int imported);
+
+        void onComplete(int imported, int skipped);
+
+        void onError(Exception e);
+    }
+
+    private final Context context;
+    private final Uri source;
+    private final Listener listener;
+
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor();
+    private final ExecutorService photoPool = Executors.newFixedThreadPool(PHOTO_THREADS);
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Contre-pression : lecture bloquée tant que les photos / lots en cours sont au maximum
+    private final Semaphore photoPermits = new Semaphore(MAX_PENDING_PHOTOS);
+    private final Semaphore batchPermits = new Semaphore(MAX_IN_FLIGHT_BATCHES);
+
+    // Lots confirmés (index de lot) ; la reprise repart après le dernier lot contigu.
+    // chunkEnds : pour chaque lot, position dans le fichier juste après son dernier enregistrement.
+    private final TreeSet<Integer> committedChunks = new TreeSet<>();
+    private final Map<Integer, Integer> chunkEnds = new HashMap<>();
+    private int contiguousChunks = 0;
+    private int resumeFrom;
+
+    private volatile boolean cancelled = false;
+    private volatile Exception failure;
+    private int imported = 0;
+    private int skipped = 0;
+
+    public ContactImporter(Context context, Uri source, Listener listener) {
+        this.context = context.getApplicationContext();
+        this.source = source;
+        this.listener = listener;
+    }
+
+    public void start() {
+        coordinator.execute(this::runImport);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void runImport() {
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        String progressKey = PREF_IMPORT_PREFIX + source;
+        resumeFrom = prefs.getInt(progressKey, 0);
+        if (resumeFrom > 0) {
+            Log.d(TAG, "Resuming import of " + source + " at record " + resumeFrom);
+        }
+
+        try (InputStream input = context.getContentResolver().openInputStream(source)) {
+            if (input == null) throw new IOException("Cannot open " + source);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+
+            try (ContactRecordReader records = openReader(reader)) {
+                List<Future<Contact>> chunk = new ArrayList<>(CHUNK_SIZE);
+                int chunkIndex = 0;
+                int position = resumeFrom;
+                ContactRecordReader.Record record;
+
+                while (!cancelled && failure == null && (record = records.next()) != null) {
+                    if (record.index < resumeFrom) continue;
+                    position = record.index + 1;
+                    if (record.contact.getFirstName() == null && record.contact.getLastName() == null) {
+                        skipped++;
+                        continue;
+                    }
+                    chunk.add(prepare(record));
+
+                    if (chunk.size() == CHUNK_SIZE) {
+                        commit(chunkIndex++, position, chunk, prefs, progressKey);
+                        chunk = new ArrayList<>(CHUNK_SIZE);
+                    }
+                }
+                if (!chunk.isEmpty() && !cancelled && failure == null) {
+                    commit(chunkIndex, position, chunk, prefs, progressKey);
+                }
+            }
+
+            // Attendre les derniers lots
+            batchPermits.acquire(MAX_IN_FLIGHT_BATCHES);
+            batchPermits.release(MAX_IN_FLIGHT_BATCHES);
+
+            if (failure != null) throw failure;
+            if (!cancelled) {
+                prefs.edit().remove(progressKey).apply();
+                Log.d(TAG, "Import complete: " + imported + " contacts, " + skipped + " skipped");
+                int total = imported;
+                mainHandler.post(() -> listener.onComplete(total, skipped));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Import failed after " + imported + " contacts", e);
+            mainHandler.post(() -> listener.onError(e));
+        } finally {
+            photoPool.shutdown();
+            coordinator.shutdown();
+        }
+    }
+
+    // vCard si la première ligne est BEGIN:VCARD, CSV sinon
+    private static ContactRecordReader openReader(BufferedReader reader) throws IOException {
+        reader.mark(64 * 1024);
+        String first;
+        do {
+            first = reader.readLine();
+        } while (first != null && first.trim().isEmpty());
+        reader.reset();
+
+        if (first != null && first.replace("\uFEFF", "").trim().equalsIgnoreCase("BEGIN:VCARD")) {
+            return new VCardReader(reader);
+        }
+        return new CsvContactReader(reader);
+    }
+
+    // Champs calculés, et photo redimensionnée / envoyée dans PhotoStore sur le pool
+    private Future<Contact> prepare(ContactRecordReader.Record record) throws InterruptedException {
+        Contact contact = record.contact;
+        contact.setId(documentId(record.index));
+        contact.setSortName(contact.getNormalizedName().getSearchForm());
+        contact.setCreatedAt(Timestamp.now());
+        contact.setUpdatedAt(Timestamp.now());
+
+        if (record.photo == null) {
+            return photoPool.submit(() -> contact);
+        }
+
+        photoPermits.acquire();
+        byte[] photo = record.photo;
+        return photoPool.submit(() -> {
+            try {
+                Bitmap bitmap = ImageUtils.decodeSampledBitmap(photo, PhotoStore.FULL_SIZE, PhotoStore.FULL_SIZE);
+                if (bitmap != null) {
+                    try {
+                        contact.setPhotoHash(Tasks.await(PhotoStore.getInstance().savePhoto(bitmap)));
+                    } finally {
+                        // Réutilisé pour décoder la photo suivante
+                        BitmapPool.getInstance().put(bitmap);
+                    }
+                }
+            } catch (ExecutionException e) {
+                // Le contact est importé sans sa photo
+                Log.w(TAG, "Could not import photo for record " + record.index, e);
+            } finally {
+                photoPermits.release();
+            }
+            return contact;
+        });
+    }
+
+    private void commit(int chunkIndex, int endPosition, List<Future<Contact>> chunk, SharedPreferences prefs,
+                        String progressKey) throws InterruptedException, ExecutionException {
+        FirebaseFirestore db = FirebaseHelper.getInstance().getDb();
+        CollectionReference collection = db.collection(FirebaseHelper.getInstance().getCollectionName());
+        WriteBatch batch = db.batch();
+        List<Contact> withBirthday = new ArrayList<>();
+        for (Future<Contact> future : chunk) {
+            Contact contact = future.get();
+            batch.set(collection.document(contact.getId()), contact);
+            if (contact.getBirthday() != null) withBirthday.add(contact);
+        }
+        int size = chunk.size();
+
+        batchPermits.acquire();
+        synchronized (committedChunks) {
+            chunkEnds.put(chunkIndex, endPosition);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        Log.d(TAG, "Committing chunk " + chunkIndex + " (" + size + " contacts), heap used "
+                + (runtime.totalMemory() - runtime.freeMemory()) / 1024 + " KB");
+
+        // Callback sur le thread principal ; le permis est rendu en dernier pour que
+        // le thread d'import voie l'état à jour quand il les récupère tous à la fin
+        batch.commit().addOnCompleteListener(task -> {
+            try {
+                if (!task.isSuccessful()) {
+                    failure = task.getException();
+                    return;
+                }
+                synchronized (committedChunks) {
+                    imported += size;
+                    committedChunks.add(chunkIndex);
+                    int savedPosition = -1;
+                    while (committedChunks.remove(contiguousChunks)) {
+                        savedPosition = chunkEnds.remove(contiguousChunks);
+                        contiguousChunks++;
+                    }
+                    // Position de reprise : fin du dernier lot confirmé sans trou avant lui
+                    if (savedPosition >= 0) {
+                        prefs.edit().putInt(progressKey, savedPosition).apply();
+                    }
+                }
+                // Contacts hors des pages chargées par la liste : rappels ajoutés ici
+                BirthdayReminders reminders = BirthdayReminders.getInstance(context);
+                for (Contact contact : withBirthday) {
+                    reminders.update(contact.getId(), contact.getFullName(), contact.getBirthday());
+                }
+                listener.onProgress(imported);
+            } finally {
+                batchPermits.release();
+            }
+        });
+    }
+
+    // Même fichier + même position = même document : une reprise n'ajoute pas de doublons
+    private String documentId(int recordIndex) {
+        String key = source + "#" + recordIndex;
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder id = new StringBuilder("imp_");
+            for (int i = 0; i < 10; i++) {
+                id.append(String.format("%02x", hash[i]));
+            }
+            return id.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
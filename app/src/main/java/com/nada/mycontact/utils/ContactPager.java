@@ -0,0 +1,306 @@
+package com.nada.mycontact.utils;
+
+import android.util.Log;
+
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.AggregateQuerySnapshot;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.Source;
+import com.google.firebase.firestore.WriteBatch;
+import com.nada.mycontact.models.Contact;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Chargement de la liste par pages triées sur sortName, au lieu d'un listener sur toute la collection.
+// Chaque page écoute une plage fixe [début, fin] : un contact ajouté agrandit sa page
+// au lieu d'en pousser un autre hors de la limite.
+// Les plages sont écoutées par SubscriptionManager : en pause quand l'écran n'est plus visible.
+public class ContactPager {
+    private static final String TAG = "ContactPager";
+
+    public static final int PAGE_SIZE = 50;
+    private static final int BATCH_LIMIT = 500;
+    private static final int MAX_JUMP_WINDOWS = 3;
+
+    public interface Listener {
+        void onContactChanged(DocumentSnapshot doc);
+
+        // Plus visible dans aucune plage écoutée : pas forcément supprimé (plage fermée, contact renommé)
+        void onContactRemoved(String id);
+
+        // Supprimé sur le serveur : copies locales à purger
+        void onContactDeleted(String id);
+
+        // Contenu d'une page à sa première lecture ; lastPage si la fin de la collection est atteinte
+        void onPageLoaded(List<DocumentSnapshot> documents, boolean lastPage);
+
+        // Appelé une fois par snapshot, après toutes les modifications
+        void onChangesApplied();
+
+        void onError(Exception e);
+    }
+
+    // Une plage écoutée : page de la liste, ou fenêtre ouverte par une recherche
+    private static class Window {
+        final String prefix;
+        DocumentSnapshot end;
+        SubscriptionManager.Subscription subscription;
+        final Set<String> ids = new HashSet<>();
+
+        Window(String prefix) {
+            this.prefix = prefix;
+        }
+    }
+
+    private final LifecycleOwner owner;
+    private final Query orderedQuery;
+    private final Listener listener;
+
+    private final List<Window> pages = new ArrayList<>();
+    private final List<Window> jumpWindows = new ArrayList<>();
+    private final List<Window> pinnedWindows = new ArrayList<>();
+    // Nombre de plages qui contiennent chaque contact : il n'est retiré que quand plus aucune ne le voit
+    private final Map<String, Integer> windowCounts = new HashMap<>();
+
+    private boolean loading = false;
+    private boolean endReached = false;
+    private boolean stopped = false;
+
+    public ContactPager(LifecycleOwner owner, Query orderedQuery, Listener listener) {
+        this.owner = owner;
+        this.orderedQuery = orderedQuery;
+        this.listener = listener;
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean isEndReached() {
+        return endReached;
+    }
+
+    public void loadNextPage() {
+        if (loading || endReached) return;
+
+        DocumentSnapshot previousEnd = pages.isEmpty() ? null : pages.get(pages.size() - 1).end;
+        Query start = previousEnd != null ? orderedQuery.startAfter(previousEnd) : orderedQuery;
+        Log.d(TAG, "Loading page " + (pages.size() + 1));
+        openWindow(new Window(null), start, true);
+    }
+
+    // Sauter à une lettre / un préfixe sans charger toutes les pages précédentes
+    public void jumpTo(String prefix) {
+        if (prefix == null || prefix.isEmpty()) return;
+        for (Window window : jumpWindows) {
+            if (prefix.equals(window.prefix)) return;
+        }
+        Log.d(TAG, "Jumping to " + prefix);
+        if (jumpWindows.size() >= MAX_JUMP_WINDOWS) {
+            close(jumpWindows.remove(0));
+        }
+        openWindow(new Window(prefix), orderedQuery.startAt(prefix), false);
+    }
+
+    // Requête écoutée en entier en plus des pages, jusqu'à stop() : les favoris de la liste
+    // complète sont tous en tête sans attendre que les pages qui les contiennent soient chargées
+    public void pin(Query query) {
+        Window window = new Window(null);
+        pinnedWindows.add(window);
+        listen(window, query);
+    }
+
+    // Fin de la recherche : on ne garde que les pages chargées normalement
+    public void releaseJumpWindows() {
+        if (jumpWindows.isEmpty()) return;
+        for (Window window : jumpWindows) {
+            close(window);
+        }
+        jumpWindows.clear();
+        listener.onChangesApplied();
+    }
+
+    public void stop() {
+        stopped = true;
+        for (Window window : pages) {
+            if (window.subscription != null) window.subscription.remove();
+        }
+        for (Window window : jumpWindows) {
+            if (window.subscription != null) window.subscription.remove();
+        }
+        for (Window window : pinnedWindows) {
+            if (window.subscription != null) window.subscription.remove();
+        }
+    }
+
+    private void openWindow(Window window, Query start, boolean isPage) {
+        if (isPage) loading = true;
+
+        // Une lecture pour fixer la fin de la plage, puis un listener sur cette plage
+        // (la seconde lecture est servie par le cache local)
+        start.limit(PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    if (isPage) loading = false;
+                    // Lecture terminée après stop() (changement de vue) : ne rien écouter
+                    if (stopped) return;
+
+                    Query range = start;
+                    if (snapshot.size() == PAGE_SIZE) {
+                        window.end = snapshot.getDocuments().get(snapshot.size() - 1);
+                        range = start.endAt(window.end);
+                    } else if (isPage) {
+                        // Dernière page : plage ouverte, elle recevra les contacts ajoutés à la fin
+                        endReached = true;
+                    }
+
+                    if (isPage) {
+                        pages.add(window);
+                        listener.onPageLoaded(snapshot.getDocuments(), endReached);
+                    } else {
+                        jumpWindows.add(window);
+                    }
+                    listen(window, range);
+                })
+                .addOnFailureListener(e -> {
+                    if (isPage) loading = false;
+                    if (stopped) return;
+                    Log.e(TAG, "Error loading page", e);
+                    listener.onError(e);
+                });
+    }
+
+    private void listen(Window window, Query range) {
+        window.subscription = SubscriptionManager.getInstance().subscribe(owner, range,
+                new SubscriptionManager.Observer() {
+                    @Override
+                    public void onChanges(List<DocumentSnapshot> changed, List<String> removedIds) {
+                        applyChanges(window, changed, removedIds);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e(TAG, "Error listening to page", e);
+                        listener.onError(e);
+                    }
+                });
+    }
+
+    private void applyChanges(Window window, List<DocumentSnapshot> changed, List<String> removedIds) {
+        for (DocumentSnapshot doc : changed) {
+            if (window.ids.add(doc.getId())) increment(doc.getId());
+            listener.onContactChanged(doc);
+        }
+        for (String id : removedIds) {
+            if (window.ids.remove(id)) decrement(id);
+            confirmDeleted(id);
+        }
+        listener.onChangesApplied();
+    }
+
+    // Sorti de la plage côté serveur : supprimé, ou renommé / retiré des favoris.
+    // Le cache local, déjà à jour quand le listener est appelé, tranche sans lecture réseau ;
+    // document absent du cache : rien n'est purgé (reconcileLocalContacts le fera au besoin)
+    private void confirmDeleted(String id) {
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        helper.getDb()
+                .collection(helper.getCollectionName())
+                .document(id)
+                .get(Source.CACHE)
+                .addOnSuccessListener(doc -> {
+                    if (!doc.exists()) listener.onContactDeleted(id);
+                });
+    }
+
+    private void close(Window window) {
+        if (window.subscription != null) window.subscription.remove();
+        for (String id : window.ids) {
+            decrement(id);
+        }
+        window.ids.clear();
+    }
+
+    private void increment(String id) {
+        Integer count = windowCounts.get(id);
+        windowCounts.put(id, count == null ? 1 : count + 1);
+    }
+
+    private void decrement(String id) {
+        Integer count = windowCounts.get(id);
+        if (count == null || count <= 1) {
+            windowCounts.remove(id);
+            listener.onContactRemoved(id);
+        } else {
+            windowCounts.put(id, count - 1);
+        }
+    }
+
+    // Migration unique : les anciens documents sans sortName n'apparaîtraient dans aucune page.
+    // Firestore ne sait pas filtrer sur un champ absent : deux comptages (le tri sur sortName
+    // exclut les documents sans ce champ) évitent de télécharger le carnet quand rien ne manque
+    public static void backfillSortNames(Runnable onComplete) {
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        Task<AggregateQuerySnapshot> total =
+                helper.getContactsQuery().count().get(AggregateSource.SERVER);
+        Task<AggregateQuerySnapshot> sorted =
+                helper.getContactsPageQuery().count().get(AggregateSource.SERVER);
+        Tasks.whenAllSuccess(total, sorted)
+                .addOnSuccessListener(results -> {
+                    long missing = total.getResult().getCount() - sorted.getResult().getCount();
+                    Log.d(TAG, missing + " contacts without sortName");
+                    if (missing == 0) {
+                        onComplete.run();
+                    } else {
+                        rewriteSortNames(onComplete);
+                    }
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error counting contacts for backfill", e));
+    }
+
+    private static void rewriteSortNames(Runnable onComplete) {
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        helper.getDb()
+                .collection(helper.getCollectionName())
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    List<WriteBatch> batches = new ArrayList<>();
+                    WriteBatch batch = null;
+                    int operations = 0;
+
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        if (doc.contains(FirebaseHelper.FIELD_SORT_NAME)) continue;
+                        Contact contact = doc.toObject(Contact.class);
+                        if (contact == null) continue;
+
+                        if (batch == null || operations == BATCH_LIMIT) {
+                            batch = helper.getDb().batch();
+                            batches.add(batch);
+                            operations = 0;
+                        }
+                        batch.update(doc.getReference(), FirebaseHelper.FIELD_SORT_NAME,
+                                contact.getNormalizedName().getSearchForm());
+                        operations++;
+                    }
+
+                    Log.d(TAG, "Backfilling sortName in " + batches.size() + " batches");
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (WriteBatch b : batches) {
+                        commits.add(b.commit());
+                    }
+                    Tasks.whenAll(commits)
+                            .addOnSuccessListener(aVoid -> onComplete.run())
+                            .addOnFailureListener(e -> Log.e(TAG, "Error backfilling sortName", e));
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Error reading contacts for backfill", e));
+    }
+}
@@ -0,0 +1,26 @@
+package com.nada.mycontact.utils;
+
+import com.nada.mycontact.models.Contact;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Lecture d'un fichier de contacts enregistrement par enregistrement (jamais le fichier entier)
+public interface ContactRecordReader extends Closeable {
+
+    // Un contact lu, avec sa photo brute éventuelle (encore à redimensionner)
+    class Record {
+        public final int index;
+        public final Contact contact;
+        public final byte[] photo;
+
+        public Record(int index, Contact contact, byte[] photo) {
+            this.index = index;
+            this.contact = contact;
+            this.photo = photo;
+        }
+    }
+
+    // null en fin de fichier
+    Record next() throws IOException;
+}
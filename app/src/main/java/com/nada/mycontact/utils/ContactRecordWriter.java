@@ -0,0 +1,13 @@
+package com.nada.mycontact.utils;
+
+import com.nada.mycontact.models.Contact;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Écriture d'un fichier de contacts au fil de l'eau, un contact à la fois
+public interface ContactRecordWriter extends Closeable {
+
+    // photo : octets JPEG de la photo pleine taille, ou null
+    void write(Contact contact, byte[] photo) throws IOException;
+}
@@ -0,0 +1,175 @@
+package com.nada.mycontact.utils;
+
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.nada.mycontact.models.Contact;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Documents contacts déjà reçus par la liste, partagés avec les écrans détails / édition :
+// un seul snapshot par id, chaque écran reçoit son propre Contact désérialisé à la demande
+// (l'édition le modifie avant que l'enregistrement soit confirmé).
+// Un document que plus aucune page n'écoute reste servi, dans la limite de MAX_UNWATCHED,
+// puis revalidé par une lecture du document.
+// Utilisé uniquement depuis le thread principal.
+public class ContactRepository {
+    private static final String TAG = "ContactRepository";
+    // Les anciens documents portent encore photoBase64 : nombre d'entrées hors fenêtre borné
+    private static final int MAX_UNWATCHED = 50;
+    private static ContactRepository instance;
+
+    // Tenus à jour par un listener de ContactPager (s'il n'est pas en pause) : bornés par la fenêtre
+    private final Map<String, DocumentSnapshot> watched = new HashMap<>();
+    // Sortis de toutes les pages écoutées : à revalider avant d'être resservis
+    private final LruCache<String, DocumentSnapshot> unwatched = new LruCache<>(MAX_UNWATCHED);
+
+    private int hitCount = 0;
+    private int staleHitCount = 0;
+    private int missCount = 0;
+
+    public interface OnContactLoadedListener {
+        // contact null : le document n'existe plus
+        void onContactLoaded(Contact contact);
+
+        void onError(Exception e);
+    }
+
+    private ContactRepository() {
+    }
+
+    public static synchronized ContactRepository getInstance() {
+        if (instance == null) {
+            instance = new ContactRepository();
+        }
+        return instance;
+    }
+
+    // Document reçu par un listener de la liste
+    public void put(DocumentSnapshot doc) {
+        unwatched.remove(doc.getId());
+        watched.put(doc.getId(), doc);
+    }
+
+    // Sorti de toutes les pages écoutées : gardé, mais à revalider avant d'être resservi
+    public void unwatch(String id) {
+        DocumentSnapshot doc = watched.remove(id);
+        if (doc != null) {
+            unwatched.put(id, doc);
+        }
+    }
+
+    public void remove(String id) {
+        watched.remove(id);
+        unwatched.remove(id);
+    }
+
+    // Réponse immédiate si le document est connu ; une seule lecture réseau sinon.
+    // Un document non écouté est servi tout de suite puis relu : le listener est rappelé
+    // une seconde fois seulement si le document a changé.
+    public void getContact(String id, OnContactLoadedListener listener) {
+        DocumentSnapshot doc = watched.get(id);
+        // Listeners en pause (liste arrêtée) : le document peut avoir changé depuis, on le revalide
+        if (doc != null && SubscriptionManager.getInstance().isListening()) {
+            hitCount++;
+            logStats();
+            listener.onContactLoaded(toContact(doc));
+            return;
+        }
+
+        if (doc == null) {
+            doc = unwatched.get(id);
+        }
+        if (doc != null) {
+            staleHitCount++;
+            listener.onContactLoaded(toContact(doc));
+        } else {
+            missCount++;
+        }
+        logStats();
+        fetch(id, doc, listener);
+    }
+
+    // Une seule livraison (écran d'édition : une seconde remplirait à nouveau le formulaire).
+    // Copie connue servie telle quelle, même non écoutée ; lecture réseau seulement si absente.
+    // L'enregistrement n'écrit que les champs modifiés : une copie un peu ancienne ne les écrase pas.
+    public void getContactOnce(String id, OnContactLoadedListener listener) {
+        DocumentSnapshot doc = watched.get(id);
+        if (doc == null) {
+            doc = unwatched.get(id);
+        }
+        if (doc != null) {
+            hitCount++;
+            logStats();
+            listener.onContactLoaded(toContact(doc));
+            return;
+        }
+
+        missCount++;
+        logStats();
+        fetch(id, null, listener);
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    private void fetch(String id, DocumentSnapshot previous, OnContactLoadedListener listener) {
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        helper.getDb()
+                .collection(helper.getCollectionName())
+                .document(id)
+                .get()
+                .addOnSuccessListener(doc -> {
+                    if (!doc.exists()) {
+                        remove(id);
+                        listener.onContactLoaded(null);
+                        return;
+                    }
+
+                    boolean changed = previous == null || !sameData(previous, doc);
+                    // Un listener a pu livrer une version plus récente entre-temps : on la garde
+                    if (!watched.containsKey(id)) {
+                        unwatched.put(id, doc);
+                    }
+                    if (changed) {
+                        listener.onContactLoaded(toContact(doc));
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error fetching contact " + id, e);
+                    // Version en cache déjà affichée : l'erreur réseau n'est pas bloquante
+                    if (previous == null) {
+                        listener.onError(e);
+                    }
+                });
+    }
+
+    // Nouvelle instance à chaque appel : jamais partagée entre deux écrans
+    private static Contact toContact(DocumentSnapshot doc) {
+        Contact contact = doc.toObject(Contact.class);
+        if (contact != null) contact.setId(doc.getId());
+        return contact;
+    }
+
+    private static boolean sameData(DocumentSnapshot a, DocumentSnapshot b) {
+        Map<String, Object> dataA = a.getData();
+        Map<String, Object> dataB = b.getData();
+        return dataA != null ? dataA.equals(dataB) : dataB == null;
+    }
+
+    private void logStats() {
+        Log.d(TAG, "Contact lookups: " + hitCount + " hits, " + staleHitCount + " stale hits, "
+                + missCount + " misses (" + watched.size() + " watched, " + unwatched.size() + " unwatched)");
+    }
+}
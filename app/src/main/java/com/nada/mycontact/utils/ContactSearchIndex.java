@@ -0,0 +1,163 @@
+package com.nada.mycontact.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Index de recherche en mémoire, mis à jour contact par contact :
+// trigrammes sur les noms normalisés (sans accents) et sur les chiffres du numéro de téléphone.
+// Java pur (pas de dépendance Android) pour pouvoir le mesurer dans le module :benchmark.
+// Interrogé depuis le thread de SearchExecutor : méthodes publiques synchronisées.
+public class ContactSearchIndex {
+
+    private static final int GRAM = 3;
+
+    // Formes normalisées calculées une seule fois à l'indexation
+    private static class Entry {
+        final String id;
+        final String name;
+        final String digits;
+
+        Entry(String id, String name, String digits) {
+            this.id = id;
+            this.name = name;
+            this.digits = digits;
+        }
+    }
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Long, Set<String>> nameGrams = new HashMap<>();
+    private final Map<Long, Set<String>> phoneGrams = new HashMap<>();
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // searchForm : nom déjà normalisé par NameNormalizer (NormalizedName.getSearchForm())
+    public synchronized void put(String id, String searchForm, String phoneNumber) {
+        remove(id);
+
+        Entry entry = new Entry(id, searchForm != null ? searchForm : "", digitsOf(phoneNumber));
+        entries.put(id, entry);
+        addGrams(nameGrams, entry.name, id);
+        addGrams(phoneGrams, entry.digits, id);
+    }
+
+    public synchronized void remove(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) return;
+
+        removeGrams(nameGrams, entry.name, id);
+        removeGrams(phoneGrams, entry.digits, id);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        nameGrams.clear();
+        phoneGrams.clear();
+    }
+
+    // Ids des contacts dont le nom contient la requête, ou dont le numéro contient ses chiffres
+    public synchronized Set<String> search(String query) {
+        Set<String> result = new HashSet<>();
+        if (query == null || query.isEmpty()) return result;
+
+        String nameQuery = NameNormalizer.fold(query);
+        if (!nameQuery.isEmpty()) {
+            collect(nameGrams, nameQuery, false, result);
+        }
+
+        // Le numéro n'est cherché que si la requête ressemble à un numéro
+        if (isPhoneQuery(query)) {
+            String digitsQuery = digitsOf(query);
+            if (!digitsQuery.isEmpty()) {
+                collect(phoneGrams, digitsQuery, true, result);
+            }
+        }
+        return result;
+    }
+
+    private void collect(Map<Long, Set<String>> grams, String query, boolean phone, Set<String> result) {
+        if (query.length() < GRAM) {
+            // Requête trop courte pour les trigrammes : parcours des formes déjà normalisées
+            for (Entry entry : entries.values()) {
+                if ((phone ? entry.digits : entry.name).contains(query)) {
+                    result.add(entry.id);
+                }
+            }
+            return;
+        }
+
+        // La plus petite liste de candidats, puis vérification de la sous-chaîne exacte
+        Set<String> smallest = null;
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            Set<String> ids = grams.get(gramKey(query, i));
+            if (ids == null) return;
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+
+        for (String id : smallest) {
+            Entry entry = entries.get(id);
+            if ((phone ? entry.digits : entry.name).contains(query)) {
+                result.add(id);
+            }
+        }
+    }
+
+    private static void addGrams(Map<Long, Set<String>> grams, String value, String id) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            Long key = gramKey(value, i);
+            Set<String> ids = grams.get(key);
+            if (ids == null) {
+                ids = new HashSet<>();
+                grams.put(key, ids);
+            }
+            ids.add(id);
+        }
+    }
+
+    private static void removeGrams(Map<Long, Set<String>> grams, String value, String id) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            Long key = gramKey(value, i);
+            Set<String> ids = grams.get(key);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) grams.remove(key);
+            }
+        }
+    }
+
+    // Trois caractères 16 bits dans un long
+    private static long gramKey(String value, int start) {
+        return ((long) value.charAt(start) << 32)
+                | ((long) value.charAt(start + 1) << 16)
+                | value.charAt(start + 2);
+    }
+
+    static String digitsOf(String value) {
+        if (value == null) return "";
+        StringBuilder digits = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        return digits.toString();
+    }
+
+    // Chiffres et séparateurs usuels uniquement : "06 12", "+33-6", "(555) 12"
+    private static boolean isPhoneQuery(String query) {
+        boolean hasDigit = false;
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c != ' ' && c != '+' && c != '-' && c != '.' && c != '(' && c != ')') {
+                return false;
+            }
+        }
+        return hasDigit;
+    }
+}
@@ -0,0 +1,36 @@
+package com.nada.mycontact.utils;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.nada.mycontact.models.ContactSummary;
+
+// Lecture directe des champs utiles à la liste, sans toObject() (réflexion) ni photoBase64
+public class ContactSummaryMapper {
+    // Noms des champs tels qu'écrits par Firestore à partir des getters de Contact
+    public static final String FIELD_FIRST_NAME = "firstName";
+    public static final String FIELD_LAST_NAME = "lastName";
+    public static final String FIELD_PHONE_NUMBER = "phoneNumber";
+    public static final String FIELD_FAVORITE = FirebaseHelper.FIELD_FAVORITE;
+    public static final String FIELD_BLOCKED = FirebaseHelper.FIELD_BLOCKED;
+    public static final String FIELD_PHOTO_HASH = "photoHash";
+    public static final String FIELD_PHOTO_BASE64 = "photoBase64";
+
+    private ContactSummaryMapper() {
+    }
+
+    public static ContactSummary fromSnapshot(DocumentSnapshot doc) {
+        return new ContactSummary(
+                doc.getId(),
+                doc.getString(FIELD_FIRST_NAME),
+                doc.getString(FIELD_LAST_NAME),
+                doc.getString(FIELD_PHONE_NUMBER),
+                Boolean.TRUE.equals(doc.getBoolean(FIELD_FAVORITE)),
+                Boolean.TRUE.equals(doc.getBoolean(FIELD_BLOCKED)),
+                doc.getString(FIELD_PHOTO_HASH));
+    }
+
+    // Ancien document avec la photo en Base64 : à migrer vers PhotoStore.
+    // set(contact) écrit aussi les champs null : tester la valeur, pas la présence du champ
+    public static boolean hasLegacyPhoto(DocumentSnapshot doc) {
+        return doc.getString(FIELD_PHOTO_BASE64) != null && doc.getString(FIELD_PHOTO_HASH) == null;
+    }
+}
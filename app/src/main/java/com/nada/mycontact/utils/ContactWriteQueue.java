@@ -0,0 +1,93 @@
+package com.nada.mycontact.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.Timestamp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Écritures partielles (update) regroupées par contact : des modifications rapprochées
+// (favori / bloqué basculés plusieurs fois) partent en un seul update() avec les dernières valeurs.
+// Utilisé uniquement depuis le thread principal.
+public class ContactWriteQueue {
+    private static final String TAG = "ContactWriteQueue";
+    private static ContactWriteQueue instance;
+
+    private static final long COALESCE_MS = 500;
+
+    private static class PendingWrite {
+        final Map<String, Object> fields = new HashMap<>();
+        final List<TaskCompletionSource<Void>> callers = new ArrayList<>();
+        Runnable flush;
+        int mergedEdits = 0;
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Map<String, PendingWrite> pending = new HashMap<>();
+
+    private ContactWriteQueue() {
+    }
+
+    public static synchronized ContactWriteQueue getInstance() {
+        if (instance == null) {
+            instance = new ContactWriteQueue();
+        }
+        return instance;
+    }
+
+    // Ajoute des champs à écrire ; la tâche se termine quand l'update() regroupé est confirmé
+    public Task<Void> update(String contactId, Map<String, Object> fields) {
+        PendingWrite write = pending.get(contactId);
+        if (write == null) {
+            write = new PendingWrite();
+            pending.put(contactId, write);
+        } else {
+            mainHandler.removeCallbacks(write.flush);
+        }
+
+        write.fields.putAll(fields);
+        write.mergedEdits++;
+        TaskCompletionSource<Void> caller = new TaskCompletionSource<>();
+        write.callers.add(caller);
+
+        write.flush = () -> flush(contactId);
+        mainHandler.postDelayed(write.flush, COALESCE_MS);
+        return caller.getTask();
+    }
+
+    // Envoyer tout de suite (par exemple avant de quitter l'écran d'édition)
+    public void flush(String contactId) {
+        PendingWrite write = pending.remove(contactId);
+        if (write == null) return;
+        mainHandler.removeCallbacks(write.flush);
+
+        Map<String, Object> fields = new HashMap<>(write.fields);
+        fields.put(ContactChangeTracker.FIELD_UPDATED_AT, Timestamp.now());
+        Log.d(TAG, "Updating " + contactId + ": " + fields.keySet() + ", ~"
+                + ContactChangeTracker.estimateBytes(fields) + " bytes (" + write.mergedEdits + " edits merged)");
+
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        helper.getDb()
+                .collection(helper.getCollectionName())
+                .document(contactId)
+                .update(fields)
+                .addOnSuccessListener(aVoid -> {
+                    for (TaskCompletionSource<Void> caller : write.callers) {
+                        caller.setResult(null);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error updating contact " + contactId, e);
+                    for (TaskCompletionSource<Void> caller : write.callers) {
+                        caller.setException(e);
+                    }
+                });
+    }
+}
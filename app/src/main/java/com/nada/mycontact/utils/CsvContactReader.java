@@ -0,0 +1,179 @@
+package com.nada.mycontact.utils;
+
+import com.google.firebase.Timestamp;
+import com.nada.mycontact.models.Contact;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+// Lecteur CSV en flux (RFC 4180 : guillemets, retours à la ligne dans un champ).
+// La première ligne donne les colonnes ; les noms usuels (Google, Outlook, français) sont reconnus.
+public class CsvContactReader implements ContactRecordReader {
+
+    private final BufferedReader reader;
+    private int firstName = -1, lastName = -1, fullName = -1, phone = -1, email = -1;
+    private int url = -1, address = -1, birthday = -1, notes = -1, favorite = -1;
+    private int index = 0;
+    private boolean headerRead = false;
+    // ',' par défaut ; ';' pour les exports Excel en français, détecté sur l'en-tête
+    private char delimiter = ',';
+
+    public CsvContactReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public Record next() throws IOException {
+        if (!headerRead) {
+            headerRead = true;
+            List<String> header = readRow();
+            if (header == null) return null;
+            if (header.size() == 1 && header.get(0).indexOf(';') >= 0) {
+                delimiter = ';';
+                header = Arrays.asList(header.get(0).split(";", -1));
+            }
+            mapColumns(header);
+        }
+
+        List<String> row;
+        do {
+            row = readRow();
+            if (row == null) return null;
+        } while (row.size() == 1 && row.get(0).isEmpty());
+
+        Contact contact = new Contact();
+        contact.setFirstName(cell(row, firstName));
+        contact.setLastName(cell(row, lastName));
+        if (contact.getFirstName() == null && contact.getLastName() == null) {
+            contact.setFirstName(cell(row, fullName));
+        }
+        contact.setPhoneNumber(cell(row, phone));
+        contact.setEmail(cell(row, email));
+        contact.setUrl(cell(row, url));
+        contact.setAddress(cell(row, address));
+        contact.setNotes(cell(row, notes));
+        contact.setBirthday(parseDate(cell(row, birthday)));
+        String fav = cell(row, favorite);
+        contact.setFavorite(fav != null && (fav.equalsIgnoreCase("true") || fav.equals("1")
+                || fav.equalsIgnoreCase("oui") || fav.equalsIgnoreCase("yes")));
+        return new Record(index++, contact, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Google : « Phone 1 - Label » (ou « - Type ») précède « Phone 1 - Value », « Address 1 - Label »
+    // précède « Address 1 - Formatted » : les libellés sont ignorés, la valeur complète est préférée
+    private void mapColumns(List<String> header) {
+        List<String> names = new ArrayList<>();
+        for (String column : header) {
+            names.add(column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT).replace("_", " "));
+        }
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            if (name.endsWith(" - label") || name.endsWith(" - type")) continue;
+            if (name.equals("first name") || name.equals("given name") || name.equals("prénom") || name.equals("firstname")) {
+                firstName = i;
+            } else if (name.equals("last name") || name.equals("family name") || name.equals("nom") || name.equals("lastname")) {
+                lastName = i;
+            } else if (name.equals("name") || name.equals("full name") || name.equals("display name")) {
+                fullName = i;
+            } else if (takes(phone, names, name) && (name.startsWith("phone") || name.contains("mobile") || name.startsWith("téléphone"))) {
+                phone = i;
+            } else if (takes(email, names, name) && (name.startsWith("e-mail") || name.startsWith("email"))) {
+                email = i;
+            } else if (takes(url, names, name) && (name.equals("url") || name.startsWith("website") || name.startsWith("web page"))) {
+                url = i;
+            } else if (takes(address, names, name) && (name.startsWith("address") || name.startsWith("adresse"))) {
+                address = i;
+            } else if (name.equals("birthday") || name.equals("anniversaire") || name.equals("date de naissance")) {
+                birthday = i;
+            } else if (name.equals("notes") || name.equals("note")) {
+                notes = i;
+            } else if (name.equals("favorite") || name.equals("favori")) {
+                favorite = i;
+            }
+        }
+    }
+
+    // Colonne libre, ou remplacement d'une colonne partielle (« Address 1 - Street ») par la valeur complète
+    private static boolean takes(int current, List<String> names, String name) {
+        return current < 0 || (isFullValue(name) && !isFullValue(names.get(current)));
+    }
+
+    private static boolean isFullValue(String name) {
+        return name.endsWith(" - value") || name.endsWith(" - formatted");
+    }
+
+    // Une ligne logique (peut couvrir plusieurs lignes physiques si un champ est entre guillemets)
+    private List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) return null;
+
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+
+        while (c != -1) {
+            char ch = (char) c;
+            if (quoted) {
+                if (ch == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        cell.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) reader.reset();
+                    }
+                } else {
+                    cell.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == delimiter) {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (ch == '\n') {
+                break;
+            } else if (ch != '\r') {
+                cell.append(ch);
+            }
+            c = reader.read();
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static String cell(List<String> row, int column) {
+        if (column < 0 || column >= row.size()) return null;
+        String value = row.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Timestamp parseDate(String value) {
+        if (value == null) return null;
+        String[] patterns = {"yyyy-MM-dd", "dd/MM/yyyy"};
+        for (String pattern : patterns) {
+            try {
+                SimpleDateFormat format = new SimpleDateFormat(pattern, Locale.ROOT);
+                format.setLenient(false);
+                Date date = format.parse(value);
+                if (date != null) return new Timestamp(date);
+            } catch (ParseException ignored) {
+                // format suivant
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.nada.mycontact.utils;
+
+import com.nada.mycontact.models.Contact;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+// CSV (RFC 4180) avec les colonnes reconnues par CsvContactReader ; les photos ne sont pas exportées
+public class CsvContactWriter implements ContactRecordWriter {
+    private static final String CRLF = "\r\n";
+    private static final String HEADER =
+            "First Name,Last Name,Phone,Email,URL,Address,Birthday,Notes,Favorite";
+
+    private final Writer writer;
+    private final SimpleDateFormat birthdayFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.ROOT);
+    private boolean headerWritten = false;
+
+    public CsvContactWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Contact contact, byte[] photo) throws IOException {
+        if (!headerWritten) {
+            writer.write(HEADER + CRLF);
+            headerWritten = true;
+        }
+        String birthday = contact.getBirthday() != null
+                ? birthdayFormat.format(contact.getBirthday().toDate()) : null;
+
+        writer.write(quote(contact.getFirstName()) + "," + quote(contact.getLastName()) + ","
+                + quote(contact.getPhoneNumber()) + "," + quote(contact.getEmail()) + ","
+                + quote(contact.getUrl()) + "," + quote(contact.getAddress()) + ","
+                + quote(birthday) + "," + quote(contact.getNotes()) + ","
+                + (contact.isFavorite() ? "true" : "false") + CRLF);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private static String quote(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,336 @@
+package com.nada.mycontact.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Détection des doublons en temps quasi linéaire : chaque contact est rangé dans des blocs par clé
+// (numéro normalisé, email en minuscules, nom phonétique), et seules les paires d'un même bloc
+// sont comparées. Les paires retenues sont regroupées par union-find (A~B et B~C : un seul groupe).
+// Java pur (sans Android) pour être mesuré par les benchmarks JMH.
+public class DuplicateDetector {
+
+    // Un numéro plus court n'identifie personne (standard, numéro court)
+    private static final int MIN_PHONE_DIGITS = 6;
+    // Numéro national sans préfixe : "+33 6 12 34 56 78" et "06 12 34 56 78" -> "612345678"
+    private static final int PHONE_KEY_DIGITS = 9;
+    // Au-delà, la clé est trop générique (standard d'entreprise, nom très courant) : bloc ignoré
+    private static final int MAX_BLOCK_SIZE = 64;
+
+    private static final class Entry {
+        final String id;
+        final String[] nameTokens;
+        final String nameKey;
+        final String phoneticKey;
+        final String phoneKey;
+        final String emailKey;
+
+        Entry(String id, String fullName, String phoneNumber, String email) {
+            this.id = id;
+            this.nameTokens = nameTokens(fullName);
+            this.nameKey = join(nameTokens);
+            this.phoneticKey = phoneticKey(nameTokens);
+            this.phoneKey = phoneKey(phoneNumber);
+            this.emailKey = emailKey(email);
+        }
+
+        Entry(String id, String[] nameTokens, String nameKey, String phoneticKey, String phoneKey, String emailKey) {
+            this.id = id;
+            this.nameTokens = nameTokens;
+            this.nameKey = nameKey;
+            this.phoneticKey = phoneticKey;
+            this.phoneKey = phoneKey;
+            this.emailKey = emailKey;
+        }
+    }
+
+    // Indices des contacts d'un bloc, sans boxing
+    private static final class Block {
+        int[] members = new int[2];
+        int size = 0;
+
+        void add(int index) {
+            if (size == members.length) members = Arrays.copyOf(members, size * 2);
+            members[size++] = index;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    private int comparisonCount = 0;
+    private int skippedBlockCount = 0;
+
+    public void add(String id, String fullName, String phoneNumber, String email) {
+        entries.add(new Entry(id, fullName, phoneNumber, email));
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Groupes d'au moins deux ids, dans l'ordre d'ajout
+    public List<List<String>> findClusters() {
+        comparisonCount = 0;
+        skippedBlockCount = 0;
+        int[] parent = new int[entries.size()];
+        // Coordonnées connues de chaque groupe, à l'indice de sa racine
+        Entry[] groups = new Entry[entries.size()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            groups[i] = entries.get(i);
+        }
+
+        for (Block block : buildBlocks().values()) {
+            if (block.size < 2) continue;
+            if (block.size > MAX_BLOCK_SIZE) {
+                skippedBlockCount++;
+                continue;
+            }
+            for (int i = 0; i < block.size; i++) {
+                for (int j = i + 1; j < block.size; j++) {
+                    int a = block.members[i];
+                    int b = block.members[j];
+                    // Déjà dans le même groupe (par un autre bloc) : rien à comparer
+                    if (find(parent, a) == find(parent, b)) continue;
+                    comparisonCount++;
+                    Entry entryA = entries.get(a);
+                    Entry entryB = entries.get(b);
+                    // Un contact sans numéro ne doit pas relier deux homonymes aux numéros différents :
+                    // pour le nom seul, les coordonnées connues des deux groupes sont aussi comparées
+                    if (isContactMatch(entryA, entryB) || (isNameMatch(entryA, entryB)
+                            && !conflict(groups[find(parent, a)], groups[find(parent, b)]))) {
+                        union(parent, groups, a, b);
+                    }
+                }
+            }
+        }
+
+        Map<Integer, List<String>> members = new LinkedHashMap<>();
+        for (int i = 0; i < parent.length; i++) {
+            int root = find(parent, i);
+            List<String> group = members.get(root);
+            if (group == null) {
+                group = new ArrayList<>(2);
+                members.put(root, group);
+            }
+            group.add(entries.get(i).id);
+        }
+
+        List<List<String>> clusters = new ArrayList<>();
+        for (List<String> group : members.values()) {
+            if (group.size() > 1) clusters.add(group);
+        }
+        return clusters;
+    }
+
+    // Paires effectivement comparées lors du dernier findClusters()
+    public int getComparisonCount() {
+        return comparisonCount;
+    }
+
+    public int getSkippedBlockCount() {
+        return skippedBlockCount;
+    }
+
+    private Map<String, Block> buildBlocks() {
+        Map<String, Block> blocks = new HashMap<>(entries.size() * 2);
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            // Préfixes : un numéro ne tombe pas dans le bloc d'un nom identique par hasard
+            if (entry.phoneKey != null) addToBlock(blocks, "t:" + entry.phoneKey, i);
+            if (entry.emailKey != null) addToBlock(blocks, "e:" + entry.emailKey, i);
+            if (!entry.phoneticKey.isEmpty()) addToBlock(blocks, "n:" + entry.phoneticKey, i);
+        }
+        return blocks;
+    }
+
+    private static void addToBlock(Map<String, Block> blocks, String key, int index) {
+        Block block = blocks.get(key);
+        if (block == null) {
+            block = new Block();
+            blocks.put(key, block);
+        }
+        block.add(index);
+    }
+
+    // Même numéro / email avec un nom proche (un numéro partagé par une famille ne suffit pas)
+    private static boolean isContactMatch(Entry a, Entry b) {
+        boolean samePhone = a.phoneKey != null && a.phoneKey.equals(b.phoneKey);
+        boolean sameEmail = a.emailKey != null && a.emailKey.equals(b.emailKey);
+        if (samePhone && sameEmail) return true;
+        return (samePhone || sameEmail) && nameScore(a, b) >= 0.5f;
+    }
+
+    // Même nom aux accents et à l'ordre près, sans coordonnée contradictoire
+    private static boolean isNameMatch(Entry a, Entry b) {
+        return nameScore(a, b) == 1f && !conflict(a, b);
+    }
+
+    private static boolean conflict(Entry a, Entry b) {
+        return (a.phoneKey != null && b.phoneKey != null && !a.phoneKey.equals(b.phoneKey))
+                || (a.emailKey != null && b.emailKey != null && !a.emailKey.equals(b.emailKey));
+    }
+
+    // 1 : même nom ; 0,8 : même prononciation ; sinon part de mots communs (0,5 si un nom manque)
+    private static float nameScore(Entry a, Entry b) {
+        if (a.nameTokens.length == 0 || b.nameTokens.length == 0) return 0.5f;
+        if (a.nameKey.equals(b.nameKey)) return 1f;
+        if (a.phoneticKey.equals(b.phoneticKey)) return 0.8f;
+
+        // Mots triés : intersection par fusion
+        int common = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.nameTokens.length && j < b.nameTokens.length) {
+            int cmp = a.nameTokens[i].compareTo(b.nameTokens[j]);
+            if (cmp == 0) {
+                common++;
+                i++;
+                j++;
+            } else if (cmp < 0) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return (float) common / (a.nameTokens.length + b.nameTokens.length - common);
+    }
+
+    // Mots du nom sans accents ni casse, triés ("Zirari Nada" = "Nada Zirari"), initiales retirées
+    static String[] nameTokens(String fullName) {
+        String folded = NameNormalizer.fold(fullName);
+        List<String> tokens = new ArrayList<>(3);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean letter = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        if (tokens.size() > 1) {
+            List<String> words = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                if (token.length() > 1) words.add(token);
+            }
+            if (!words.isEmpty()) tokens = words;
+        }
+        String[] sorted = tokens.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    // Squelette de consonnes de chaque mot : "Mohamed" / "Mohammed" / "Muhammad" -> "mmt"
+    static String phoneticKey(String[] tokens) {
+        StringBuilder key = new StringBuilder();
+        for (String token : tokens) {
+            if (key.length() > 0) key.append(' ');
+            // Première lettre gardée telle quelle, voyelle comprise
+            key.append(token.charAt(0));
+            char previous = phoneticCode(token.charAt(0));
+            for (int i = 1; i < token.length(); i++) {
+                char c = token.charAt(i);
+                if (c == 'h' || c == 'w') continue;
+                if (c == 'p' && i + 1 < token.length() && token.charAt(i + 1) == 'h') {
+                    c = 'f';
+                    i++;
+                }
+                char code = phoneticCode(c);
+                // Consonne doublée ("mm") comptée une fois ; une voyelle sépare deux consonnes
+                if (code != 0 && code != previous) key.append(code);
+                previous = code;
+            }
+        }
+        return key.toString();
+    }
+
+    // Consonnes de même son regroupées ; voyelles à 0
+    private static char phoneticCode(char c) {
+        switch (c) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+            case 'y':
+                return 0;
+            case 'c':
+            case 'k':
+            case 'q':
+                return 'k';
+            case 'z':
+                return 's';
+            case 'd':
+                return 't';
+            case 'b':
+                return 'p';
+            case 'v':
+                return 'f';
+            default:
+                return c;
+        }
+    }
+
+    static String phoneKey(String phoneNumber) {
+        if (phoneNumber == null) return null;
+        StringBuilder digits = new StringBuilder(phoneNumber.length());
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') digits.append(c);
+        }
+        if (digits.length() < MIN_PHONE_DIGITS) return null;
+        return digits.length() > PHONE_KEY_DIGITS
+                ? digits.substring(digits.length() - PHONE_KEY_DIGITS)
+                : digits.toString();
+    }
+
+    static String emailKey(String email) {
+        if (email == null) return null;
+        String key = email.trim().toLowerCase(Locale.ROOT);
+        return key.indexOf('@') > 0 ? key : null;
+    }
+
+    private static String join(String[] tokens) {
+        StringBuilder joined = new StringBuilder();
+        for (String token : tokens) {
+            if (joined.length() > 0) joined.append(' ');
+            joined.append(token);
+        }
+        return joined.toString();
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            // Compression de chemin par division
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, Entry[] groups, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return;
+        // Le plus ancien ajout reste racine : les groupes gardent l'ordre d'ajout
+        int root = Math.min(rootA, rootB);
+        int child = Math.max(rootA, rootB);
+        parent[child] = root;
+        groups[root] = summary(groups[root], groups[child]);
+    }
+
+    // Premières coordonnées connues du groupe (seuls phoneKey et emailKey servent ensuite)
+    private static Entry summary(Entry root, Entry child) {
+        if ((root.phoneKey != null || child.phoneKey == null) && (root.emailKey != null || child.emailKey == null)) {
+            return root;
+        }
+        return new Entry(root.id, root.nameTokens, root.nameKey, root.phoneticKey,
+                root.phoneKey != null ? root.phoneKey : child.phoneKey,
+                root.emailKey != null ? root.emailKey : child.emailKey);
+    }
+}
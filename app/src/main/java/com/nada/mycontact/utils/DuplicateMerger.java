@@ -0,0 +1,314 @@
+package com.nada.mycontact.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+import com.nada.mycontact.models.Contact;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Recherche et fusion des doublons de tout le carnet, en arrière-plan.
+// Le carnet est parcouru page par page (seuls nom, numéro et email sont gardés pour DuplicateDetector),
+// puis seuls les contacts des groupes trouvés sont relus en entier.
+// La fusion d'un groupe (mise à jour du contact gardé + suppression des autres) est écrite dans
+// un même WriteBatch : un groupe n'est jamais fusionné à moitié. Les groupes sont regroupés
+// dans des lots de 500 écritures au plus (limite Firestore).
+public class DuplicateMerger {
+    private static final String TAG = "DuplicateMerger";
+    private static DuplicateMerger instance;
+
+    private static final int PAGE_SIZE = 200;
+    // Limite Firestore des filtres whereIn
+    private static final int IDS_PER_QUERY = 10;
+    private static final int BATCH_LIMIT = 500;
+
+    public interface FindListener {
+        // Chaque groupe contient au moins deux contacts
+        void onComplete(List<List<Contact>> groups);
+
+        void onError(Exception e);
+    }
+
+    public interface MergeListener {
+        void onComplete(int mergedGroups, int deletedContacts);
+
+        void onError(Exception e);
+    }
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private DuplicateMerger() {
+    }
+
+    public static synchronized DuplicateMerger getInstance() {
+        if (instance == null) {
+            instance = new DuplicateMerger();
+        }
+        return instance;
+    }
+
+    public void findDuplicates(FindListener listener) {
+        worker.execute(() -> {
+            try {
+                List<List<Contact>> groups = loadGroups(detect());
+                mainHandler.post(() -> listener.onComplete(groups));
+            } catch (Exception e) {
+                Log.e(TAG, "Duplicate search failed", e);
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+    }
+
+    // Listener appelé sur le thread principal ; les groupes déjà écrits restent fusionnés en cas d'erreur
+    public void merge(Context context, List<List<Contact>> groups, MergeListener listener) {
+        List<List<Contact>> pending = new ArrayList<>(groups);
+        BirthdayReminders reminders = BirthdayReminders.getInstance(context);
+        worker.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            FirebaseFirestore db = FirebaseHelper.getInstance().getDb();
+            CollectionReference collection = db.collection(FirebaseHelper.getInstance().getCollectionName());
+            WriteBatch batch = db.batch();
+            List<Contact> batchWinners = new ArrayList<>();
+            List<String> batchDeletes = new ArrayList<>();
+            int batchWrites = 0;
+            int mergedGroups = 0;
+            int deleted = 0;
+
+            try {
+                for (List<Contact> group : pending) {
+                    if (group.size() < 2) continue;
+                    if (group.size() > BATCH_LIMIT) {
+                        Log.w(TAG, "Skipping group of " + group.size() + " contacts (larger than a batch)");
+                        continue;
+                    }
+                    if (batchWrites + group.size() > BATCH_LIMIT) {
+                        commit(batch, batchWinners, batchDeletes, reminders);
+                        batch = db.batch();
+                        batchWinners = new ArrayList<>();
+                        batchDeletes = new ArrayList<>();
+                        batchWrites = 0;
+                    }
+
+                    Contact winner = pickWinner(group);
+                    Map<String, Object> original = ContactChangeTracker.fieldsOf(winner);
+                    List<Contact> losers = new ArrayList<>(group);
+                    losers.remove(winner);
+                    mergeInto(winner, losers);
+
+                    Map<String, Object> changes = ContactChangeTracker.diff(original, winner);
+                    if (!changes.isEmpty()) {
+                        changes.put(ContactChangeTracker.FIELD_UPDATED_AT, Timestamp.now());
+                        batch.update(collection.document(winner.getId()), changes);
+                    }
+                    batchWinners.add(winner);
+                    for (Contact loser : losers) {
+                        batch.delete(collection.document(loser.getId()));
+                        batchDeletes.add(loser.getId());
+                    }
+                    batchWrites += group.size();
+                    mergedGroups++;
+                    deleted += losers.size();
+                }
+                if (batchWrites > 0) commit(batch, batchWinners, batchDeletes, reminders);
+
+                Log.d(TAG, "Merged " + mergedGroups + " groups, " + deleted + " contacts deleted in "
+                        + (SystemClock.elapsedRealtime() - start) + " ms");
+                int merged = mergedGroups;
+                int total = deleted;
+                mainHandler.post(() -> listener.onComplete(merged, total));
+            } catch (Exception e) {
+                Log.e(TAG, "Merge failed", e);
+                mainHandler.post(() -> listener.onError(e));
+            }
+        });
+    }
+
+    private void commit(WriteBatch batch, List<Contact> winners, List<String> deletedIds,
+                        BirthdayReminders reminders) throws Exception {
+        Tasks.await(batch.commit());
+        // Contacts fusionnés parfois hors des pages chargées : rappels mis à jour ici
+        for (Contact winner : winners) {
+            reminders.update(winner.getId(), winner.getFullName(), winner.getBirthday());
+        }
+        for (String id : deletedIds) {
+            reminders.remove(id);
+        }
+        mainHandler.post(() -> {
+            for (String id : deletedIds) {
+                ContactRepository.getInstance().remove(id);
+            }
+        });
+    }
+
+    // Parcours du carnet : les documents ne sont pas désérialisés, seuls trois champs sont lus
+    private List<List<String>> detect() throws Exception {
+        long start = SystemClock.elapsedRealtime();
+        DuplicateDetector detector = new DuplicateDetector();
+        Query query = FirebaseHelper.getInstance().getContactsPageQuery().limit(PAGE_SIZE);
+        DocumentSnapshot last = null;
+        while (true) {
+            Query page = last != null ? query.startAfter(last) : query;
+            List<DocumentSnapshot> documents = Tasks.await(page.get()).getDocuments();
+            for (DocumentSnapshot doc : documents) {
+                detector.add(doc.getId(),
+                        fullName(doc.getString(ContactSummaryMapper.FIELD_FIRST_NAME),
+                                doc.getString(ContactSummaryMapper.FIELD_LAST_NAME)),
+                        doc.getString(ContactSummaryMapper.FIELD_PHONE_NUMBER),
+                        doc.getString(ContactChangeTracker.FIELD_EMAIL));
+            }
+            if (documents.size() < PAGE_SIZE) break;
+            last = documents.get(documents.size() - 1);
+        }
+
+        long detectStart = SystemClock.elapsedRealtime();
+        List<List<String>> clusters = detector.findClusters();
+        Log.d(TAG, clusters.size() + " duplicate groups among " + detector.size() + " contacts: read in "
+                + (detectStart - start) + " ms, detected in " + (SystemClock.elapsedRealtime() - detectStart)
+                + " ms (" + detector.getComparisonCount() + " comparisons, "
+                + detector.getSkippedBlockCount() + " oversized blocks skipped)");
+        return clusters;
+    }
+
+    // Contacts complets des groupes, relus par paquets de 10 ids
+    private List<List<Contact>> loadGroups(List<List<String>> clusters) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (List<String> cluster : clusters) {
+            ids.addAll(cluster);
+        }
+
+        FirebaseHelper helper = FirebaseHelper.getInstance();
+        Map<String, Contact> contacts = new HashMap<>(ids.size() * 2);
+        for (int start = 0; start < ids.size(); start += IDS_PER_QUERY) {
+            List<String> chunk = ids.subList(start, Math.min(start + IDS_PER_QUERY, ids.size()));
+            QuerySnapshot snapshot = Tasks.await(helper.getDb()
+                    .collection(helper.getCollectionName())
+                    .whereIn(FieldPath.documentId(), chunk)
+                    .get());
+            for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                Contact contact = doc.toObject(Contact.class);
+                if (contact == null) continue;
+                contact.setId(doc.getId());
+                contacts.put(doc.getId(), contact);
+            }
+        }
+
+        List<List<Contact>> groups = new ArrayList<>(clusters.size());
+        for (List<String> cluster : clusters) {
+            List<Contact> group = new ArrayList<>(cluster.size());
+            for (String id : cluster) {
+                Contact contact = contacts.get(id);
+                // Supprimé entre-temps
+                if (contact != null) group.add(contact);
+            }
+            if (group.size() > 1) groups.add(group);
+        }
+        return groups;
+    }
+
+    // Le plus complet est gardé ; à égalité, le plus ancien
+    static Contact pickWinner(List<Contact> group) {
+        return Collections.max(group, Comparator
+                .comparingInt(DuplicateMerger::filledFieldCount)
+                .thenComparing(DuplicateMerger::createdAtMillis, Comparator.reverseOrder()));
+    }
+
+    // Champs vides du contact gardé complétés par les autres ; rien n'est perdu :
+    // un autre numéro ou email est recopié dans les notes
+    static void mergeInto(Contact winner, List<Contact> losers) {
+        StringBuilder notes = new StringBuilder(nullToEmpty(winner.getNotes()));
+        for (Contact loser : losers) {
+            if (isEmpty(winner.getFirstName())) winner.setFirstName(loser.getFirstName());
+            if (isEmpty(winner.getLastName())) winner.setLastName(loser.getLastName());
+            if (isEmpty(winner.getUrl())) winner.setUrl(loser.getUrl());
+            if (isEmpty(winner.getAddress())) winner.setAddress(loser.getAddress());
+            if (winner.getBirthday() == null) winner.setBirthday(loser.getBirthday());
+
+            if (isEmpty(winner.getPhoneNumber())) {
+                winner.setPhoneNumber(loser.getPhoneNumber());
+            } else if (!isEmpty(loser.getPhoneNumber()) && !samePhone(winner.getPhoneNumber(), loser.getPhoneNumber())) {
+                appendLine(notes, "Autre numéro : " + loser.getPhoneNumber());
+            }
+            if (isEmpty(winner.getEmail())) {
+                winner.setEmail(loser.getEmail());
+            } else if (!isEmpty(loser.getEmail()) && !winner.getEmail().equalsIgnoreCase(loser.getEmail().trim())) {
+                appendLine(notes, "Autre email : " + loser.getEmail());
+            }
+            if (!isEmpty(loser.getNotes()) && notes.indexOf(loser.getNotes()) < 0) {
+                appendLine(notes, loser.getNotes());
+            }
+
+            winner.setFavorite(winner.isFavorite() || loser.isFavorite());
+            winner.setBlocked(winner.isBlocked() || loser.isBlocked());
+            // Photo du premier qui en a une (PhotoStore : la photo est partagée par son hash)
+            if (isEmpty(winner.getPhotoHash()) && isEmpty(winner.getPhotoBase64())) {
+                winner.setPhotoHash(loser.getPhotoHash());
+                winner.setPhotoBase64(loser.getPhotoBase64());
+            }
+        }
+        winner.setNotes(notes.length() > 0 ? notes.toString() : null);
+        winner.setSortName(winner.getNormalizedName().getSearchForm());
+    }
+
+    private static int filledFieldCount(Contact contact) {
+        int count = 0;
+        if (!isEmpty(contact.getFirstName())) count++;
+        if (!isEmpty(contact.getLastName())) count++;
+        if (!isEmpty(contact.getPhoneNumber())) count++;
+        if (!isEmpty(contact.getEmail())) count++;
+        if (!isEmpty(contact.getUrl())) count++;
+        if (!isEmpty(contact.getAddress())) count++;
+        if (!isEmpty(contact.getNotes())) count++;
+        if (contact.getBirthday() != null) count++;
+        if (!isEmpty(contact.getPhotoHash()) || !isEmpty(contact.getPhotoBase64())) count++;
+        return count;
+    }
+
+    private static long createdAtMillis(Contact contact) {
+        Timestamp createdAt = contact.getCreatedAt();
+        return createdAt != null ? createdAt.toDate().getTime() : Long.MAX_VALUE;
+    }
+
+    private static boolean samePhone(String a, String b) {
+        String keyA = DuplicateDetector.phoneKey(a);
+        return keyA != null ? keyA.equals(DuplicateDetector.phoneKey(b)) : a.trim().equals(b.trim());
+    }
+
+    private static String fullName(String firstName, String lastName) {
+        if (isEmpty(firstName)) return nullToEmpty(lastName);
+        if (isEmpty(lastName)) return firstName;
+        return firstName + " " + lastName;
+    }
+
+    private static void appendLine(StringBuilder notes, String line) {
+        if (notes.length() > 0) notes.append('\n');
+        notes.append(line);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+}
@@ -2,14 +2,32 @@ package com.nada.mycontact.utils;
 
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
+import com.nada.mycontact.BuildConfig;
 
 public class FirebaseHelper {
     private static FirebaseHelper instance;
     private final FirebaseFirestore db;
     private static final String COLLECTION_CONTACTS = "contacts";
+    private static final int FIRESTORE_EMULATOR_PORT = 8080;
+
+    // Nom sans accents en minuscules, utilisé comme clé de tri côté serveur pour la pagination
+    public static final String FIELD_SORT_NAME = "sortName";
+    // Noms stockés des drapeaux (voir @PropertyName dans Contact)
+    public static final String FIELD_FAVORITE = "favorite";
+    public static final String FIELD_BLOCKED = "blocked";
+
+    // Filtres appliqués côté serveur : seuls les documents retenus sont téléchargés.
+    // Chaque filtre combiné au tri sur sortName a son index composite (firestore.indexes.json).
+    public enum ContactFilter {
+        ALL, FAVORITES, BLOCKED, NOT_BLOCKED
+    }
 
     private FirebaseHelper() {
         db = FirebaseFirestore.getInstance();
+        // Builds de mesure (voir app/build.gradle.kts) : base locale semée par les tests, jamais les contacts réels
+        if (BuildConfig.USE_FIRESTORE_EMULATOR) {
+            db.useEmulator(BuildConfig.FIRESTORE_EMULATOR_HOST, FIRESTORE_EMULATOR_PORT);
+        }
     }
 
     public static synchronized FirebaseHelper getInstance() {
@@ -32,8 +50,54 @@ public class FirebaseHelper {
         return db.collection(COLLECTION_CONTACTS);
     }
 
+    // Liste paginée : triée sur sortName (voir ContactPager)
+    public Query getContactsPageQuery() {
+        return db.collection(COLLECTION_CONTACTS)
+                .orderBy(FIELD_SORT_NAME);
+    }
+
+    // Liste paginée restreinte à un filtre, même tri que getContactsPageQuery()
+    public Query getContactsPageQuery(ContactFilter filter) {
+        switch (filter) {
+            case FAVORITES:
+                return getFavoritesQuery();
+            case BLOCKED:
+                return getBlockedQuery();
+            case NOT_BLOCKED:
+                return getNotBlockedQuery();
+            default:
+                return getContactsPageQuery();
+        }
+    }
+
     public Query getFavoritesQuery() {
         return db.collection(COLLECTION_CONTACTS)
-                .whereEqualTo("isFavorite", true);
+                .whereEqualTo(FIELD_FAVORITE, true)
+                .orderBy(FIELD_SORT_NAME);
+    }
+
+    // Tous les contacts bloqués, sans tri : y compris les documents sans sortName (CallerIndex)
+    public Query getBlockedContactsQuery() {
+        return db.collection(COLLECTION_CONTACTS)
+                .whereEqualTo(FIELD_BLOCKED, true);
+    }
+
+    public Query getBlockedQuery() {
+        return db.collection(COLLECTION_CONTACTS)
+                .whereEqualTo(FIELD_BLOCKED, true)
+                .orderBy(FIELD_SORT_NAME);
+    }
+
+    // Les documents sans champ "blocked" n'en font pas partie : Contact l'écrit toujours
+    public Query getNotBlockedQuery() {
+        return db.collection(COLLECTION_CONTACTS)
+                .whereEqualTo(FIELD_BLOCKED, false)
+                .orderBy(FIELD_SORT_NAME);
+    }
+
+    // Contacts qui ont un anniversaire (index des rappels), sans parcourir tout le carnet
+    public Query getBirthdaysQuery() {
+        return db.collection(COLLECTION_CONTACTS)
+                .whereNotEqualTo(ContactChangeTracker.FIELD_BIRTHDAY, null);
     }
-}
\ No newline at end of file
+}
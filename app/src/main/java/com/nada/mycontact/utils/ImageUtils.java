@@ -2,34 +2,148 @@ package com.nada.mycontact.utils;
 
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.os.Build;
 import android.util.Base64;
+import android.util.Log;
+
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 
 public class ImageUtils {
+    private static final String TAG = "ImageUtils";
+    private static final int EXPORT_JPEG_QUALITY = 90;
 
     // Convertir Bitmap en Base64
+    // Ancien format (champ photoBase64) : conservé uniquement pour la migration vers PhotoStore
     public static String bitmapToBase64(Bitmap bitmap) {
-        if (bitmap == null) return null;
-
-        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 80, byteArrayOutputStream);
-        byte[] byteArray = byteArrayOutputStream.toByteArray();
+        byte[] byteArray = bitmapToBytes(bitmap, 80);
+        if (byteArray == null) return null;
         return Base64.encodeToString(byteArray, Base64.DEFAULT);
     }
 
     // Convertir Base64 en Bitmap
+    // Ancien format (champ photoBase64) : conservé uniquement pour la migration vers PhotoStore
     public static Bitmap base64ToBitmap(String base64String) {
         if (base64String == null || base64String.isEmpty()) return null;
 
         try {
             byte[] decodedBytes = Base64.decode(base64String, Base64.DEFAULT);
-            return BitmapFactory.decodeByteArray(decodedBytes, 0, decodedBytes.length);
+            return bytesToBitmap(decodedBytes);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
+    // Compresser un Bitmap en JPEG brut (sans Base64)
+    public static byte[] bitmapToBytes(Bitmap bitmap, int quality) {
+        if (bitmap == null) return null;
+
+        ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, quality, byteArrayOutputStream);
+        return byteArrayOutputStream.toByteArray();
+    }
+
+    // WebP avec perte : nettement plus petit que JPEG à qualité égale, décodé par BitmapFactory sur toutes nos versions
+    @SuppressWarnings("deprecation")
+    public static Bitmap.CompressFormat preferredFormat() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY : Bitmap.CompressFormat.WEBP;
+    }
+
+    // Redimensionner puis encoder à la plus haute qualité qui tient dans byteBudget
+    public static byte[] encodeWithinBudget(Bitmap bitmap, int maxSize, int byteBudget) {
+        if (bitmap == null) return null;
+
+        Bitmap resized = resizeBitmap(bitmap, maxSize);
+        Bitmap.CompressFormat format = preferredFormat();
+        long start = System.nanoTime();
+        try {
+            ByteBudgetEncoder.Result result = ByteBudgetEncoder.encode(
+                    (quality, out) -> resized.compress(format, quality, out), byteBudget);
+            Log.d(TAG, "Encoded " + resized.getWidth() + "x" + resized.getHeight() + " " + format + " q"
+                    + result.quality + ": " + result.bytes.length + "/" + byteBudget + " bytes, "
+                    + result.attempts + " attempts in " + (System.nanoTime() - start) / 1000 + " µs"
+                    + (result.withinBudget ? "" : " (over budget)"));
+            return result.bytes;
+        } catch (IOException e) {
+            // Flux en mémoire : n'arrive pas
+            throw new IllegalStateException(e);
+        } finally {
+            if (resized != bitmap) resized.recycle();
+        }
+    }
+
+    // En-tête RIFF....WEBP
+    public static boolean isWebp(byte[] bytes) {
+        return bytes != null && bytes.length >= 12
+                && bytes[0] == 'R' && bytes[1] == 'I' && bytes[2] == 'F' && bytes[3] == 'F'
+                && bytes[8] == 'W' && bytes[9] == 'E' && bytes[10] == 'B' && bytes[11] == 'P';
+    }
+
+    // Export vCard : JPEG, le seul format photo que tous les carnets d'adresses relisent
+    public static byte[] toJpeg(byte[] bytes) {
+        Bitmap bitmap = bytesToBitmap(bytes);
+        if (bitmap == null) return null;
+        byte[] jpeg = bitmapToBytes(bitmap, EXPORT_JPEG_QUALITY);
+        BitmapPool.getInstance().put(bitmap);
+        return jpeg;
+    }
+
+    // Décoder des octets JPEG / WebP en Bitmap
+    public static Bitmap bytesToBitmap(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) return null;
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        return decodeReusing(bytes, options);
+    }
+
+    // Décoder directement à la taille d'affichage (inSampleSize) au lieu de la pleine résolution
+    public static Bitmap decodeSampledBitmap(byte[] bytes, int reqWidth, int reqHeight) {
+        if (bytes == null || bytes.length == 0) return null;
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight, reqWidth, reqHeight);
+        return decodeReusing(bytes, options);
+    }
+
+    // Décodage dans un bitmap de BitmapPool quand il y en a un de la bonne taille.
+    // Le résultat est mutable : le rendre au pool (BitmapPool.put) quand il n'est plus affiché.
+    private static Bitmap decodeReusing(byte[] bytes, BitmapFactory.Options options) {
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+
+        int sampleSize = Math.max(1, options.inSampleSize);
+        int width = (options.outWidth + sampleSize - 1) / sampleSize;
+        int height = (options.outHeight + sampleSize - 1) / sampleSize;
+        options.inJustDecodeBounds = false;
+        options.inMutable = true;
+        options.inBitmap = BitmapPool.getInstance().get(width, height, Bitmap.Config.ARGB_8888);
+        try {
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        } catch (IllegalArgumentException e) {
+            // Bitmap du pool refusé par le décodeur : allocation normale
+            Log.w(TAG, "inBitmap rejected for " + width + "x" + height, e);
+            options.inBitmap = null;
+            return BitmapFactory.decodeByteArray(bytes, 0, bytes.length, options);
+        }
+    }
+
+    // Plus grande puissance de 2 qui garde l'image au moins aussi grande que la cible
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        if (reqWidth <= 0 || reqHeight <= 0) return inSampleSize;
+
+        while ((width / (inSampleSize * 2)) >= reqWidth && (height / (inSampleSize * 2)) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
     // Redimensionner bitmap pour économiser l'espace
     public static Bitmap resizeBitmap(Bitmap bitmap, int maxSize) {
         int width = bitmap.getWidth();
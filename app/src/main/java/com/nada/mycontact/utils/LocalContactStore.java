@@ -0,0 +1,206 @@
+package com.nada.mycontact.utils;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.nada.mycontact.models.ContactSummary;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Copie locale (SQLite) de la projection de liste (ContactSummary), sans les photos : la liste s'affiche depuis le disque
+// au démarrage, puis Firestore la met à jour en arrière-plan
+public class LocalContactStore extends SQLiteOpenHelper {
+    private static final String TAG = "LocalContactStore";
+    private static LocalContactStore instance;
+
+    private static final String DATABASE_NAME = "contacts.db";
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE_CONTACTS = "contacts";
+    private static final String COL_ID = "id";
+    private static final String COL_FIRST_NAME = "first_name";
+    private static final String COL_LAST_NAME = "last_name";
+    private static final String COL_PHONE = "phone_number";
+    private static final String COL_FAVORITE = "favorite";
+    private static final String COL_BLOCKED = "blocked";
+    private static final String COL_PHOTO_HASH = "photo_hash";
+    private static final String COL_SORT_NAME = "sort_name";
+
+    // Première page : de quoi remplir l'écran et un peu plus
+    public static final int FIRST_PAGE_SIZE = 100;
+
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private List<ContactSummary> firstPage;
+    private final List<OnContactsLoadedListener> waitingForFirstPage = new ArrayList<>();
+    private boolean firstPageLoading = false;
+
+    // Écritures en attente par id (null = suppression) : la dernière modification d'un contact l'emporte
+    private final Map<String, ContentValues> pendingWrites = new HashMap<>();
+    private boolean flushScheduled = false;
+
+    public interface OnContactsLoadedListener {
+        void onContactsLoaded(List<ContactSummary> contacts);
+    }
+
+    private LocalContactStore(Context context) {
+        super(context.getApplicationContext(), DATABASE_NAME, null, DATABASE_VERSION);
+    }
+
+    public static synchronized LocalContactStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new LocalContactStore(context);
+        }
+        return instance;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_CONTACTS + " ("
+                + COL_ID + " TEXT PRIMARY KEY, "
+                + COL_FIRST_NAME + " TEXT, "
+                + COL_LAST_NAME + " TEXT, "
+                + COL_PHONE + " TEXT, "
+                + COL_FAVORITE + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_BLOCKED + " INTEGER NOT NULL DEFAULT 0, "
+                + COL_PHOTO_HASH + " TEXT, "
+                + COL_SORT_NAME + " TEXT)");
+        db.execSQL("CREATE INDEX idx_contacts_list ON " + TABLE_CONTACTS
+                + " (" + COL_FAVORITE + " DESC, " + COL_SORT_NAME + ")");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Simple cache : on repart de zéro, Firestore le remplira de nouveau
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_CONTACTS);
+        onCreate(db);
+    }
+
+    // Lecture de la première page (favoris puis ordre alphabétique), partagée entre
+    // SplashActivity (qui attend qu'elle soit prête) et MainActivity (qui l'affiche)
+    public void loadFirstPage(OnContactsLoadedListener listener) {
+        if (firstPage != null) {
+            listener.onContactsLoaded(firstPage);
+            return;
+        }
+        waitingForFirstPage.add(listener);
+        if (firstPageLoading) return;
+        firstPageLoading = true;
+
+        // Écritures en attente d'abord : la lecture doit les voir
+        flush();
+        diskExecutor.execute(() -> {
+            long start = System.nanoTime();
+            List<ContactSummary> contacts = queryFirstPage();
+            Log.d(TAG, "Loaded " + contacts.size() + " contacts from disk in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+            mainHandler.post(() -> {
+                firstPage = Collections.unmodifiableList(contacts);
+                firstPageLoading = false;
+                for (OnContactsLoadedListener l : waitingForFirstPage) {
+                    l.onContactsLoaded(firstPage);
+                }
+                waitingForFirstPage.clear();
+            });
+        });
+    }
+
+    // Appelées sur le thread principal ; l'écriture se fait sur le thread disque.
+    // La première page en mémoire n'est plus à jour : la prochaine lecture repassera par SQLite.
+    public void upsert(ContactSummary contact) {
+        firstPage = null;
+        pendingWrites.put(contact.getId(), toValues(contact));
+        scheduleFlush();
+    }
+
+    public void delete(String id) {
+        firstPage = null;
+        pendingWrites.put(id, null);
+        scheduleFlush();
+    }
+
+    // Les modifications d'un snapshot arrivent toutes dans le même message du thread principal :
+    // elles sont écrites juste après, en une seule transaction (un seul fsync au lieu d'un par contact)
+    private void scheduleFlush() {
+        if (flushScheduled) return;
+        flushScheduled = true;
+        mainHandler.post(this::flush);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        if (pendingWrites.isEmpty()) return;
+        Map<String, ContentValues> writes = new HashMap<>(pendingWrites);
+        pendingWrites.clear();
+        diskExecutor.execute(() -> {
+            SQLiteDatabase db = getWritableDatabase();
+            db.beginTransaction();
+            try {
+                for (Map.Entry<String, ContentValues> write : writes.entrySet()) {
+                    if (write.getValue() != null) {
+                        db.insertWithOnConflict(TABLE_CONTACTS, null, write.getValue(), SQLiteDatabase.CONFLICT_REPLACE);
+                    } else {
+                        db.delete(TABLE_CONTACTS, COL_ID + " = ?", new String[]{write.getKey()});
+                    }
+                }
+                db.setTransactionSuccessful();
+            } catch (Exception e) {
+                Log.e(TAG, "Error writing local contacts", e);
+            } finally {
+                db.endTransaction();
+            }
+        });
+    }
+
+    private List<ContactSummary> queryFirstPage() {
+        List<ContactSummary> contacts = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().query(TABLE_CONTACTS, null, null, null, null, null,
+                COL_FAVORITE + " DESC, " + COL_SORT_NAME, String.valueOf(FIRST_PAGE_SIZE))) {
+            while (cursor.moveToNext()) {
+                contacts.add(fromCursor(cursor));
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Error reading local contacts", e);
+        }
+        return contacts;
+    }
+
+    private static ContentValues toValues(ContactSummary contact) {
+        ContentValues values = new ContentValues();
+        values.put(COL_ID, contact.getId());
+        values.put(COL_FIRST_NAME, contact.getFirstName());
+        values.put(COL_LAST_NAME, contact.getLastName());
+        values.put(COL_PHONE, contact.getPhoneNumber());
+        values.put(COL_FAVORITE, contact.isFavorite() ? 1 : 0);
+        values.put(COL_BLOCKED, contact.isBlocked() ? 1 : 0);
+        values.put(COL_PHOTO_HASH, contact.getPhotoHash());
+        values.put(COL_SORT_NAME, contact.getNormalizedName().getSearchForm());
+        return values;
+    }
+
+    // sort_name n'est pas relu : il est recalculé par ContactSummary à partir du nom
+    private static ContactSummary fromCursor(Cursor cursor) {
+        return new ContactSummary(
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_ID)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_FIRST_NAME)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_LAST_NAME)),
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_PHONE)),
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_FAVORITE)) == 1,
+                cursor.getInt(cursor.getColumnIndexOrThrow(COL_BLOCKED)) == 1,
+                cursor.getString(cursor.getColumnIndexOrThrow(COL_PHOTO_HASH)));
+    }
+}
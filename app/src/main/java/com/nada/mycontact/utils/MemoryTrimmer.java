@@ -0,0 +1,42 @@
+package com.nada.mycontact.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+// Réduit les caches d'images quand le système manque de mémoire (onTrimMemory).
+// Enregistré une fois sur le contexte de l'application, depuis le premier écran créé.
+public class MemoryTrimmer implements ComponentCallbacks2 {
+    private static final String TAG = "MemoryTrimmer";
+    private static boolean registered = false;
+
+    private MemoryTrimmer() {
+    }
+
+    public static synchronized void register(Context context) {
+        if (registered) return;
+        registered = true;
+        context.getApplicationContext().registerComponentCallbacks(new MemoryTrimmer());
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        Log.d(TAG, "onTrimMemory(" + level + ")");
+        AvatarLoader.getInstance().trimMemory(level);
+        PhotoStore.getInstance().trimMemory(level);
+        // En dernier : reçoit les bitmaps libérés par le cache d'avatars
+        BitmapPool.getInstance().trimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        onTrimMemory(TRIM_MEMORY_COMPLETE);
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+}
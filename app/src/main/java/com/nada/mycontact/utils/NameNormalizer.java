@@ -0,0 +1,90 @@
+package com.nada.mycontact.utils;
+
+import com.nada.mycontact.models.NormalizedName;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Tri et recherche tenant compte de la langue et des accents.
+// Les formes sont calculées une fois par contact (au chargement ou à la modification),
+// les comparaisons ensuite ne créent plus de chaînes.
+public class NameNormalizer {
+
+    public static final String SECTION_OTHER = "#";
+
+    private static final Collator collator = createCollator();
+    private static final Map<String, CollationKey> sectionKeys = new HashMap<>();
+
+    private static Collator createCollator() {
+        Collator collator = Collator.getInstance(Locale.getDefault());
+        // Les accents départagent, la casse non (comme l'ancien toLowerCase())
+        collator.setStrength(Collator.SECONDARY);
+        collator.setDecomposition(Collator.CANONICAL_DECOMPOSITION);
+        return collator;
+    }
+
+    public static NormalizedName normalize(String fullName) {
+        String name = fullName != null ? fullName.trim() : "";
+        String searchForm = fold(name);
+        return new NormalizedName(collationKey(name), searchForm, sectionOf(searchForm));
+    }
+
+    // Minuscules sans accents : "Émilie Lefèvre" -> "emilie lefevre"
+    public static String fold(String value) {
+        if (value == null || value.isEmpty()) return "";
+
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+
+            switch (c) {
+                case 'œ':
+                case 'Œ':
+                    folded.append("oe");
+                    break;
+                case 'æ':
+                case 'Æ':
+                    folded.append("ae");
+                    break;
+                case 'ß':
+                    folded.append("ss");
+                    break;
+                default:
+                    folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+
+    // Clé de tri d'un header de section, mise en cache (quelques dizaines de sections au plus)
+    public static CollationKey sectionKey(String section) {
+        synchronized (sectionKeys) {
+            CollationKey key = sectionKeys.get(section);
+            if (key == null) {
+                key = collationKey(section);
+                sectionKeys.put(section, key);
+            }
+            return key;
+        }
+    }
+
+    private static CollationKey collationKey(String value) {
+        // Collator n'est pas thread-safe
+        synchronized (collator) {
+            return collator.getCollationKey(value);
+        }
+    }
+
+    private static String sectionOf(String searchForm) {
+        if (searchForm.isEmpty()) return SECTION_OTHER;
+        char first = searchForm.charAt(0);
+        if (!Character.isLetter(first)) return SECTION_OTHER;
+        return String.valueOf(Character.toUpperCase(first));
+    }
+}
@@ -0,0 +1,301 @@
+package com.nada.mycontact.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Index numéro -> contact en temps constant, pour le filtrage des appels et le nom de l'appelant.
+// Les numéros sont normalisés au format E.164 et stockés comme long dans une table à adressage
+// ouvert (sondage linéaire, tableaux primitifs, aucun objet par recherche).
+// Un filtre de Bloom écarte les numéros inconnus (le cas courant) sans parcourir la table.
+// Mis à jour contact par contact ; Java pur (sans Android) pour les benchmarks JMH.
+public class PhoneIndex {
+
+    public static final long NO_NUMBER = -1;
+
+    // E.164 : 15 chiffres au plus ; en dessous de 6, numéro court ou incomplet
+    private static final int MIN_DIGITS = 6;
+    private static final int MAX_DIGITS = 15;
+    // Numéro national sans 0 initial ("612345678", "2125551234") : l'indicatif par défaut est ajouté
+    private static final int MAX_NATIONAL_DIGITS = 10;
+    private static final long MAX_E164 = 999_999_999_999_999L;
+
+    private static final int INITIAL_CAPACITY = 64;
+    // Table remplie à moitié au plus : sondages courts
+    private static final int MAX_LOAD_PERCENT = 50;
+    // Bits de filtre par case de la table (16 par numéro au remplissage maximal, ~0,5 % de faux positifs)
+    private static final int BLOOM_BITS_PER_SLOT = 8;
+
+    // Contact(s) d'un numéro ; plusieurs contacts peuvent partager un fixe
+    public static final class Caller {
+        public final String contactId;
+        public final String name;
+        public final boolean blocked;
+        private final Caller next;
+
+        Caller(String contactId, String name, boolean blocked, Caller next) {
+            this.contactId = contactId;
+            this.name = name;
+            this.blocked = blocked;
+            this.next = next;
+        }
+
+        // Bloqué si l'un des contacts qui portent ce numéro l'est
+        public boolean isAnyBlocked() {
+            for (Caller caller = this; caller != null; caller = caller.next) {
+                if (caller.blocked) return true;
+            }
+            return false;
+        }
+    }
+
+    private final int defaultCountryCode;
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private Caller[] callers = new Caller[INITIAL_CAPACITY];
+    private long[] bloom = new long[INITIAL_CAPACITY * BLOOM_BITS_PER_SLOT / 64];
+    private int size = 0;
+    // Le filtre ne sait pas retirer : reconstruit quand les suppressions s'accumulent
+    private int removedSinceBloomRebuild = 0;
+
+    // Pour retirer l'ancien numéro d'un contact modifié ou supprimé
+    private final Map<String, Long> keyByContact = new HashMap<>();
+
+    private int lookupCount = 0;
+    private int bloomRejectCount = 0;
+
+    // defaultCountryCode : indicatif des numéros saisis sans indicatif (33, 212...) ; 0 si inconnu
+    public PhoneIndex(int defaultCountryCode) {
+        this.defaultCountryCode = defaultCountryCode;
+    }
+
+    public synchronized void put(String contactId, String name, String phoneNumber, boolean blocked) {
+        remove(contactId);
+        long key = normalize(phoneNumber, defaultCountryCode);
+        if (key == NO_NUMBER) return;
+
+        keyByContact.put(contactId, key);
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            callers[slot] = new Caller(contactId, name, blocked, callers[slot]);
+            return;
+        }
+        keys[slot] = key;
+        callers[slot] = new Caller(contactId, name, blocked, null);
+        size++;
+        addToBloom(key);
+        if (size * 100 > keys.length * MAX_LOAD_PERCENT) {
+            resize(keys.length * 2);
+        }
+    }
+
+    public synchronized void remove(String contactId) {
+        Long key = keyByContact.remove(contactId);
+        if (key == null) return;
+
+        int slot = findSlot(key);
+        if (keys[slot] != key) return;
+        Caller remaining = without(callers[slot], contactId);
+        if (remaining != null) {
+            callers[slot] = remaining;
+            return;
+        }
+        deleteSlot(slot);
+        size--;
+        if (++removedSinceBloomRebuild > size) {
+            rebuildBloom();
+        }
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(callers, null);
+        Arrays.fill(bloom, 0);
+        keyByContact.clear();
+        size = 0;
+        removedSinceBloomRebuild = 0;
+    }
+
+    // Premier contact du numéro, ou null
+    public Caller lookup(String phoneNumber) {
+        return lookup(normalize(phoneNumber, defaultCountryCode));
+    }
+
+    public synchronized Caller lookup(long key) {
+        lookupCount++;
+        if (key == NO_NUMBER) return null;
+        if (!mightContain(key)) {
+            bloomRejectCount++;
+            return null;
+        }
+        int slot = findSlot(key);
+        return keys[slot] == key ? callers[slot] : null;
+    }
+
+    public boolean isBlocked(String phoneNumber) {
+        Caller caller = lookup(phoneNumber);
+        return caller != null && caller.isAnyBlocked();
+    }
+
+    public String callerName(String phoneNumber) {
+        for (Caller caller = lookup(phoneNumber); caller != null; caller = caller.next) {
+            if (caller.name != null && !caller.name.isEmpty()) return caller.name;
+        }
+        return null;
+    }
+
+    // Numéros distincts
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int getLookupCount() {
+        return lookupCount;
+    }
+
+    public synchronized int getBloomRejectCount() {
+        return bloomRejectCount;
+    }
+
+    // "+33 6 12 34 56 78", "0033612345678", "06.12.34.56.78" -> 33612345678 (indicatif 33 par défaut).
+    // Lu chiffre par chiffre sans créer de chaîne ; NO_NUMBER si ce n'est pas un numéro complet
+    public static long normalize(String phoneNumber, int defaultCountryCode) {
+        if (phoneNumber == null) return NO_NUMBER;
+
+        long value = 0;
+        int digits = 0;
+        int leadingZeros = 0;
+        boolean international = false;
+        for (int i = 0; i < phoneNumber.length(); i++) {
+            char c = phoneNumber.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (value == 0 && c == '0') {
+                    leadingZeros++;
+                } else {
+                    value = value * 10 + (c - '0');
+                    digits++;
+                    if (digits > MAX_DIGITS) return NO_NUMBER;
+                }
+            } else if (c == '+' && digits == 0 && leadingZeros == 0) {
+                international = true;
+            } else if ((c == ',' || c == ';' || Character.isLetter(c)) && (digits > 0 || leadingZeros > 0)) {
+                // Pause, poste ou paramètre ("...;ext=12") : fin du numéro
+                break;
+            }
+            // Espaces, points, tirets, parenthèses, préfixe "tel:" ignorés
+        }
+        if (digits < MIN_DIGITS) return NO_NUMBER;
+
+        long number;
+        if (international || leadingZeros >= 2) {
+            // "+33..." ou "0033..." : l'indicatif est déjà là
+            if (international && leadingZeros > 0) return NO_NUMBER;
+            number = value;
+        } else if (defaultCountryCode > 0 && (leadingZeros == 1 || digits <= MAX_NATIONAL_DIGITS)) {
+            // "06..." : le 0 national remplacé par l'indicatif
+            number = defaultCountryCode * pow10(digits) + value;
+        } else {
+            number = value;
+        }
+        return number <= MAX_E164 ? number : NO_NUMBER;
+    }
+
+    private int findSlot(long key) {
+        int mask = keys.length - 1;
+        int slot = (int) mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Suppression sans marqueur : les clés suivantes du même groupe sont recalées vers le trou
+    private void deleteSlot(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int i = slot;
+        while (true) {
+            i = (i + 1) & mask;
+            long key = keys[i];
+            if (key == 0) break;
+            int ideal = (int) mix(key) & mask;
+            if (((i - ideal) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = key;
+                callers[hole] = callers[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        callers[hole] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Caller[] oldCallers = callers;
+        keys = new long[capacity];
+        callers = new Caller[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == 0) continue;
+            int slot = findSlot(oldKeys[i]);
+            keys[slot] = oldKeys[i];
+            callers[slot] = oldCallers[i];
+        }
+        rebuildBloom();
+    }
+
+    private void rebuildBloom() {
+        bloom = new long[keys.length * BLOOM_BITS_PER_SLOT / 64];
+        for (long key : keys) {
+            if (key != 0) addToBloom(key);
+        }
+        removedSinceBloomRebuild = 0;
+    }
+
+    // Trois positions dérivées d'un seul hachage (double hachage de Kirsch-Mitzenmacher)
+    private void addToBloom(long key) {
+        long hash = mix(key ^ 0x9E3779B97F4A7C15L);
+        int mask = bloom.length * 64 - 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < 3; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bloom[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    private boolean mightContain(long key) {
+        long hash = mix(key ^ 0x9E3779B97F4A7C15L);
+        int mask = bloom.length * 64 - 1;
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < 3; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    private static Caller without(Caller head, String contactId) {
+        if (head == null) return null;
+        if (head.contactId.equals(contactId)) return head.next;
+        Caller rest = without(head.next, contactId);
+        return rest == head.next ? head : new Caller(head.contactId, head.name, head.blocked, rest);
+    }
+
+    // Finaliseur de MurmurHash3 : les numéros proches tombent dans des cases éloignées
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xFF51AFD7ED558CCDL;
+        key ^= key >>> 33;
+        key *= 0xC4CEB9FE1A85EC53L;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    private static long pow10(int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,179 @@
+package com.nada.mycontact.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.graphics.Matrix;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.exifinterface.media.ExifInterface;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Photo choisie dans la galerie : décodée directement à la taille utile, hors du thread principal.
+// Les dimensions sont lues d'abord, l'image n'est jamais décodée en pleine résolution
+// (ImageDecoder avec taille cible à partir d'Android 9, BitmapFactory + inSampleSize avant).
+// L'orientation EXIF est appliquée, les bitmaps intermédiaires sont libérés tout de suite.
+public class PhotoIngestor {
+    private static final String TAG = "PhotoIngestor";
+    private static PhotoIngestor instance;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Seule la dernière photo choisie est livrée
+    private int generation = 0;
+
+    public interface Listener {
+        void onPhotoReady(Bitmap bitmap);
+
+        void onError(Exception e);
+    }
+
+    private PhotoIngestor() {
+    }
+
+    public static synchronized PhotoIngestor getInstance() {
+        if (instance == null) {
+            instance = new PhotoIngestor();
+        }
+        return instance;
+    }
+
+    // Côté le plus long ramené à maxSize ; listener appelé sur le thread principal
+    public void ingest(Context context, Uri uri, int maxSize, Listener listener) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        long pickedAt = SystemClock.uptimeMillis();
+        int request = ++generation;
+
+        executor.execute(() -> {
+            MemoryProbe memory = new MemoryProbe();
+            try {
+                Bitmap bitmap = Build.VERSION.SDK_INT >= Build.VERSION_CODES.P
+                        ? decodeWithImageDecoder(resolver, uri, maxSize, memory)
+                        : decodeWithBitmapFactory(resolver, uri, maxSize, memory);
+                if (bitmap == null) throw new IOException("Cannot decode " + uri);
+
+                Log.d(TAG, "Photo decoded to " + bitmap.getWidth() + "x" + bitmap.getHeight()
+                        + " in " + (SystemClock.uptimeMillis() - pickedAt) + " ms, peak memory +"
+                        + memory.peakKb() + " KB");
+                mainHandler.post(() -> {
+                    if (request != generation) {
+                        bitmap.recycle();
+                        return;
+                    }
+                    listener.onPhotoReady(bitmap);
+                });
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Photo ingestion failed for " + uri, e);
+                mainHandler.post(() -> {
+                    if (request == generation) listener.onError(e);
+                });
+            }
+        });
+    }
+
+    // Android 9+ : taille cible fixée dès la lecture de l'en-tête, orientation EXIF appliquée par le décodeur
+    private static Bitmap decodeWithImageDecoder(ContentResolver resolver, Uri uri, int maxSize,
+                                                 MemoryProbe memory) throws IOException {
+        ImageDecoder.Source source = ImageDecoder.createSource(resolver, uri);
+        Bitmap bitmap = ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+            Size size = info.getSize();
+            float scale = scaleFor(size.getWidth(), size.getHeight(), maxSize);
+            if (scale < 1f) {
+                decoder.setTargetSize(Math.max(1, Math.round(size.getWidth() * scale)),
+                        Math.max(1, Math.round(size.getHeight() * scale)));
+            }
+            // Pixels accessibles (compression JPEG, redimensionnement des miniatures)
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+            Log.d(TAG, "Source image " + size.getWidth() + "x" + size.getHeight());
+        });
+        memory.sample();
+        return bitmap;
+    }
+
+    // Avant Android 9 : dimensions seules, décodage sous-échantillonné, puis mise à l'échelle
+    // et rotation EXIF en une seule transformation
+    private static Bitmap decodeWithBitmapFactory(ContentResolver resolver, Uri uri, int maxSize,
+                                                  MemoryProbe memory) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream input = resolver.openInputStream(uri)) {
+            if (input == null) throw new IOException("Cannot open " + uri);
+            BitmapFactory.decodeStream(input, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) return null;
+        Log.d(TAG, "Source image " + options.outWidth + "x" + options.outHeight);
+
+        int longSide = Math.max(options.outWidth, options.outHeight);
+        options.inSampleSize = ImageUtils.calculateInSampleSize(longSide, longSide, maxSize, maxSize);
+        options.inJustDecodeBounds = false;
+        Bitmap sampled;
+        try (InputStream input = resolver.openInputStream(uri)) {
+            if (input == null) throw new IOException("Cannot open " + uri);
+            sampled = BitmapFactory.decodeStream(input, null, options);
+        }
+        if (sampled == null) return null;
+        memory.sample();
+
+        Matrix matrix = new Matrix();
+        float scale = scaleFor(sampled.getWidth(), sampled.getHeight(), maxSize);
+        if (scale < 1f) matrix.postScale(scale, scale);
+        applyExifOrientation(resolver, uri, matrix);
+        if (matrix.isIdentity()) return sampled;
+
+        Bitmap result = Bitmap.createBitmap(sampled, 0, 0, sampled.getWidth(), sampled.getHeight(), matrix, true);
+        memory.sample();
+        if (result != sampled) sampled.recycle();
+        return result;
+    }
+
+    private static void applyExifOrientation(ContentResolver resolver, Uri uri, Matrix matrix) {
+        try (InputStream input = resolver.openInputStream(uri)) {
+            if (input == null) return;
+            ExifInterface exif = new ExifInterface(input);
+            int degrees = exif.getRotationDegrees();
+            if (degrees != 0) matrix.postRotate(degrees);
+            if (exif.isFlipped()) matrix.postScale(-1f, 1f);
+        } catch (IOException e) {
+            // Pas d'EXIF lisible : image gardée telle quelle
+            Log.w(TAG, "Could not read EXIF orientation", e);
+        }
+    }
+
+    private static float scaleFor(int width, int height, int maxSize) {
+        int longSide = Math.max(width, height);
+        return longSide > maxSize ? (float) maxSize / longSide : 1f;
+    }
+
+    // Mémoire (tas Java + tas natif, où sont les pixels) au-dessus du niveau de départ
+    private static class MemoryProbe {
+        private final long baseline = used();
+        private long peak = 0;
+
+        void sample() {
+            peak = Math.max(peak, used() - baseline);
+        }
+
+        long peakKb() {
+            sample();
+            return peak / 1024;
+        }
+
+        private static long used() {
+            Runtime runtime = Runtime.getRuntime();
+            return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.nada.mycontact.utils;
+
+import android.content.ComponentCallbacks2;
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.Blob;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.nada.mycontact.models.Contact;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Stockage des photos adressé par contenu : le contact ne garde que le hash (photoHash),
+// les octets sont dans deux collections séparées (miniature pour la liste, pleine taille pour les détails)
+public class PhotoStore {
+    private static final String TAG = "PhotoStore";
+    private static PhotoStore instance;
+
+    private static final String COLLECTION_THUMBS = "photo_thumbs";
+    private static final String COLLECTION_FULL = "photos";
+    private static final String FIELD_DATA = "data";
+
+    public static final int THUMB_SIZE = 96;
+    public static final int FULL_SIZE = 400;
+    // Taille maximale encodée par palier : bien en dessous de la limite de 1 Mio d'un document
+    private static final int THUMB_BUDGET = 4 * 1024;
+    private static final int FULL_BUDGET = 60 * 1024;
+
+    private final FirebaseFirestore db;
+    // Encodage (plusieurs compressions par photo) hors du thread principal
+    private final ExecutorService encodeExecutor = Executors.newSingleThreadExecutor();
+
+    // Cache des octets déjà téléchargés (les miniatures font quelques Ko)
+    private final LruCache<String, byte[]> thumbCache = new LruCache<String, byte[]>(1024 * 1024) {
+        @Override
+        protected int sizeOf(String key, byte[] value) {
+            return value.length;
+        }
+    };
+    private final LruCache<String, byte[]> fullCache = new LruCache<String, byte[]>(4 * 1024 * 1024) {
+        @Override
+        protected int sizeOf(String key, byte[] value) {
+            return value.length;
+        }
+    };
+
+    // Requêtes en cours : un seul téléchargement par hash, même si plusieurs vues le demandent
+    private final Map<String, List<OnPhotoLoadedListener>> pendingLoads = new HashMap<>();
+    private final Set<String> migratingContacts = new HashSet<>();
+
+    public interface OnPhotoLoadedListener {
+        void onPhotoLoaded(byte[] data);
+    }
+
+    private PhotoStore() {
+        db = FirebaseHelper.getInstance().getDb();
+    }
+
+    public static synchronized PhotoStore getInstance() {
+        if (instance == null) {
+            instance = new PhotoStore();
+        }
+        return instance;
+    }
+
+    // Enregistrer une photo : encode les deux tailles dans leur budget, puis écrit les deux documents
+    public Task<String> savePhoto(Bitmap bitmap) {
+        return Tasks.call(encodeExecutor, () -> new byte[][]{
+                ImageUtils.encodeWithinBudget(bitmap, FULL_SIZE, FULL_BUDGET),
+                ImageUtils.encodeWithinBudget(bitmap, THUMB_SIZE, THUMB_BUDGET)
+        }).onSuccessTask(encoded -> upload(encoded[0], encoded[1]));
+    }
+
+    // Pas de lecture préalable : vérifier l'existence téléchargerait le document pleine taille,
+    // alors que réécrire les mêmes octets sous le même hash ne change rien
+    private Task<String> upload(byte[] full, byte[] thumb) {
+        String hash = sha256(full);
+
+        fullCache.put(hash, full);
+        thumbCache.put(hash, thumb);
+
+        Log.d(TAG, "Uploading photo " + hash + " (" + thumb.length + " + " + full.length + " bytes)");
+        return Tasks.whenAll(
+                writeBlob(db.collection(COLLECTION_THUMBS), hash, thumb),
+                writeBlob(db.collection(COLLECTION_FULL), hash, full)
+        ).continueWith(t -> {
+            if (!t.isSuccessful()) throw t.getException();
+            return hash;
+        });
+    }
+
+    // Octets téléchargés : rechargeables depuis le cache Firestore, vidés sous forte pression
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            thumbCache.evictAll();
+            fullCache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            fullCache.evictAll();
+        }
+    }
+
+    public void loadThumbnail(String hash, OnPhotoLoadedListener listener) {
+        load(COLLECTION_THUMBS, thumbCache, hash, listener);
+    }
+
+    public void loadFull(String hash, OnPhotoLoadedListener listener) {
+        load(COLLECTION_FULL, fullCache, hash, listener);
+    }
+
+    // Lecture sans passer par le cache (export : chaque photo n'est lue qu'une fois)
+    public Task<byte[]> fetchFull(String hash) {
+        return db.collection(COLLECTION_FULL)
+                .document(hash)
+                .get()
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    return readBlob(task.getResult());
+                });
+    }
+
+    // Migration : un document qui a encore photoBase64 est converti en photoHash,
+    // et le champ Base64 est supprimé pour alléger la synchronisation de la liste
+    public void migrateLegacyPhoto(Contact contact) {
+        if (contact.getId() == null) return;
+        if (contact.getPhotoBase64() == null || contact.getPhotoBase64().isEmpty()) return;
+        if (!migratingContacts.add(contact.getId())) return;
+
+        Bitmap bitmap = ImageUtils.base64ToBitmap(contact.getPhotoBase64());
+        if (bitmap == null) {
+            migratingContacts.remove(contact.getId());
+            return;
+        }
+
+        savePhoto(bitmap)
+                .onSuccessTask(hash -> db.collection(FirebaseHelper.getInstance().getCollectionName())
+                        .document(contact.getId())
+                        .update("photoHash", hash, "photoBase64", FieldValue.delete()))
+                .addOnCompleteListener(task -> {
+                    migratingContacts.remove(contact.getId());
+                    // Encodage terminé dans tous les cas : le bitmap peut resservir
+                    BitmapPool.getInstance().put(bitmap);
+                    if (task.isSuccessful()) {
+                        Log.d(TAG, "Migrated legacy photo for contact " + contact.getId());
+                    } else {
+                        Log.e(TAG, "Error migrating legacy photo", task.getException());
+                    }
+                });
+    }
+
+    private void load(String collection, LruCache<String, byte[]> cache, String hash,
+                      OnPhotoLoadedListener listener) {
+        if (hash == null || hash.isEmpty()) {
+            listener.onPhotoLoaded(null);
+            return;
+        }
+
+        byte[] cached = cache.get(hash);
+        if (cached != null) {
+            listener.onPhotoLoaded(cached);
+            return;
+        }
+
+        String key = collection + "/" + hash;
+        List<OnPhotoLoadedListener> waiting = pendingLoads.get(key);
+        if (waiting != null) {
+            waiting.add(listener);
+            return;
+        }
+        waiting = new ArrayList<>();
+        waiting.add(listener);
+        pendingLoads.put(key, waiting);
+
+        db.collection(collection)
+                .document(hash)
+                .get()
+                .addOnCompleteListener(task -> {
+                    byte[] data = null;
+                    if (task.isSuccessful()) {
+                        data = readBlob(task.getResult());
+                        if (data != null) cache.put(hash, data);
+                    } else {
+                        Log.e(TAG, "Error loading photo " + hash, task.getException());
+                    }
+
+                    List<OnPhotoLoadedListener> listeners = pendingLoads.remove(key);
+                    if (listeners != null) {
+                        for (OnPhotoLoadedListener l : listeners) {
+                            l.onPhotoLoaded(data);
+                        }
+                    }
+                });
+    }
+
+    private Task<Void> writeBlob(CollectionReference collection, String hash, byte[] data) {
+        Map<String, Object> doc = new HashMap<>();
+        doc.put(FIELD_DATA, Blob.fromBytes(data));
+        return collection.document(hash).set(doc);
+    }
+
+    private static byte[] readBlob(DocumentSnapshot snapshot) {
+        if (snapshot == null || !snapshot.exists()) return null;
+        Blob blob = snapshot.getBlob(FIELD_DATA);
+        return blob != null ? blob.toBytes() : null;
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(data);
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16));
+                hex.append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.nada.mycontact.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.nada.mycontact.models.ContactListItem;
+import com.nada.mycontact.models.ContactSummary;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Exécution de la recherche hors du thread principal : la saisie est regroupée (debounce),
+// une requête plus récente annule la précédente, et seul le dernier résultat est publié
+public class SearchExecutor {
+
+    private static final long DEBOUNCE_MS = 150;
+
+    private final ContactSearchIndex searchIndex;
+    private final ContactDeltaEngine deltaEngine;
+    private final OnResultsListener listener;
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    private Runnable pendingSearch;
+    private Future<?> runningSearch;
+    // Incrémenté à chaque nouvelle requête : un résultat d'une génération plus ancienne est ignoré
+    private int generation = 0;
+
+    public interface OnResultsListener {
+        // startedAt : instant de la frappe (SystemClock.uptimeMillis()), pour mesurer la latence
+        void onResults(String query, List<ContactListItem> items, long startedAt);
+    }
+
+    public SearchExecutor(ContactSearchIndex searchIndex, ContactDeltaEngine deltaEngine,
+                          OnResultsListener listener) {
+        this.searchIndex = searchIndex;
+        this.deltaEngine = deltaEngine;
+        this.listener = listener;
+    }
+
+    // Frappe clavier : lancée après DEBOUNCE_MS sans nouvelle frappe
+    public void search(String query) {
+        long startedAt = SystemClock.uptimeMillis();
+        cancel();
+        pendingSearch = () -> run(query, startedAt);
+        mainHandler.postDelayed(pendingSearch, DEBOUNCE_MS);
+    }
+
+    // Relancer immédiatement (par exemple quand les contacts ont changé)
+    public void searchNow(String query) {
+        cancel();
+        run(query, SystemClock.uptimeMillis());
+    }
+
+    public void cancel() {
+        generation++;
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        if (runningSearch != null) {
+            runningSearch.cancel(true);
+            runningSearch = null;
+        }
+    }
+
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private void run(String query, long startedAt) {
+        pendingSearch = null;
+        int searchGeneration = ++generation;
+
+        runningSearch = worker.submit(() -> {
+            Set<String> matchingIds = searchIndex.search(query);
+            if (Thread.currentThread().isInterrupted()) return;
+
+            List<ContactSummary> contacts = deltaEngine.getContacts(matchingIds);
+            if (Thread.currentThread().isInterrupted()) return;
+
+            List<ContactListItem> items = ContactDeltaEngine.buildItems(contacts);
+            mainHandler.post(() -> {
+                if (searchGeneration == generation) {
+                    runningSearch = null;
+                    listener.onResults(query, items, startedAt);
+                }
+            });
+        });
+    }
+}
@@ -0,0 +1,306 @@
+package com.nada.mycontact.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Listeners Firestore partagés et liés au cycle de vie des écrans.
+// Une requête n'a qu'un listener, quel que soit le nombre d'écrans qui l'observent ; il est retiré
+// quand plus aucun écran abonné n'est visible (onStop) et rétabli au onStart suivant.
+// À la reprise, seul l'écart avec le dernier état connu est livré (rattrapage par différence).
+// Utilisé uniquement depuis le thread principal.
+public class SubscriptionManager {
+    private static final String TAG = "SubscriptionManager";
+    private static SubscriptionManager instance;
+
+    public interface Observer {
+        // Une fois par snapshot : documents ajoutés ou modifiés, puis ids sortis de la requête
+        void onChanges(List<DocumentSnapshot> changed, List<String> removedIds);
+
+        void onError(Exception e);
+    }
+
+    public interface Subscription {
+        void remove();
+    }
+
+    private static final Subscription NO_SUBSCRIPTION = () -> {
+    };
+
+    private final Map<Query, SharedQuery> sharedQueries = new HashMap<>();
+
+    // Snapshots reçus avec au moins un écran visible / sans aucun écran visible (doit rester à 0)
+    private int foregroundEvents = 0;
+    private int backgroundEvents = 0;
+    // Snapshots gardés pour un écran arrêté, livrés en une fois à son onStart
+    private int deferredEvents = 0;
+    private int catchUpChanges = 0;
+    private int pauseCount = 0;
+    private int resumeCount = 0;
+
+    private SubscriptionManager() {
+    }
+
+    public static synchronized SubscriptionManager getInstance() {
+        if (instance == null) {
+            instance = new SubscriptionManager();
+        }
+        return instance;
+    }
+
+    // L'abonnement suit le cycle de vie de owner et se retire tout seul à son onDestroy
+    public Subscription subscribe(LifecycleOwner owner, Query query, Observer observer) {
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) {
+            return NO_SUBSCRIPTION;
+        }
+        SharedQuery shared = sharedQueries.get(query);
+        if (shared == null) {
+            shared = new SharedQuery(query);
+            sharedQueries.put(query, shared);
+        }
+        Subscriber subscriber = new Subscriber(shared, owner, observer);
+        shared.subscribers.add(subscriber);
+        // Reçoit tout de suite ON_START si l'écran est déjà visible
+        owner.getLifecycle().addObserver(subscriber);
+        return subscriber;
+    }
+
+    // Faux si tous les listeners sont en pause : les données reçues peuvent être périmées
+    public boolean isListening() {
+        for (SharedQuery shared : sharedQueries.values()) {
+            if (shared.registration != null) return true;
+        }
+        return false;
+    }
+
+    public int getForegroundEvents() {
+        return foregroundEvents;
+    }
+
+    public int getBackgroundEvents() {
+        return backgroundEvents;
+    }
+
+    public int getDeferredEvents() {
+        return deferredEvents;
+    }
+
+    private void logStats() {
+        Log.d(TAG, "Snapshot events: " + foregroundEvents + " foreground, " + backgroundEvents + " background, "
+                + deferredEvents + " deferred; " + pauseCount + " pauses, " + resumeCount + " resumes, "
+                + catchUpChanges + " changes caught up (" + sharedQueries.size() + " shared queries)");
+    }
+
+    // Un listener Firestore, ses abonnés, et le dernier état reçu (pour le rattrapage)
+    private class SharedQuery {
+        final Query query;
+        final List<Subscriber> subscribers = new ArrayList<>();
+        final Map<String, DocumentSnapshot> documents = new LinkedHashMap<>();
+        ListenerRegistration registration;
+        // documents reflète au moins un snapshot reçu
+        boolean hasState = false;
+        // Premier snapshot après une pause : à comparer à documents plutôt qu'à lire en changements
+        boolean catchingUp = false;
+
+        SharedQuery(Query query) {
+            this.query = query;
+        }
+
+        boolean hasActiveSubscriber() {
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.active) return true;
+            }
+            return false;
+        }
+
+        void update() {
+            boolean active = hasActiveSubscriber();
+            if (active && registration == null) {
+                catchingUp = hasState;
+                if (hasState) resumeCount++;
+                registration = query.addSnapshotListener(this::onSnapshot);
+            } else if (!active && registration != null) {
+                registration.remove();
+                registration = null;
+                pauseCount++;
+                logStats();
+            }
+        }
+
+        void close() {
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+            sharedQueries.remove(query);
+        }
+
+        void onSnapshot(QuerySnapshot value, FirebaseFirestoreException error) {
+            if (error != null) {
+                for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+                    if (subscriber.active) subscriber.observer.onError(error);
+                }
+                return;
+            }
+            if (value == null) return;
+
+            if (hasActiveSubscriber()) {
+                foregroundEvents++;
+            } else {
+                backgroundEvents++;
+            }
+
+            List<DocumentSnapshot> changed = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            if (!hasState || catchingUp) {
+                diff(value, changed, removed);
+                if (catchingUp) catchUpChanges += changed.size() + removed.size();
+            } else {
+                for (DocumentChange change : value.getDocumentChanges()) {
+                    DocumentSnapshot doc = change.getDocument();
+                    if (change.getType() == DocumentChange.Type.REMOVED) {
+                        documents.remove(doc.getId());
+                        removed.add(doc.getId());
+                    } else {
+                        documents.put(doc.getId(), doc);
+                        changed.add(doc);
+                    }
+                }
+            }
+            hasState = true;
+            catchingUp = false;
+
+            for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+                subscriber.dispatch(changed, removed);
+            }
+        }
+
+        // Remplace documents par le contenu du snapshot et ne garde que ce qui diffère
+        private void diff(QuerySnapshot value, List<DocumentSnapshot> changed, List<String> removed) {
+            Map<String, DocumentSnapshot> previous = new HashMap<>(documents);
+            documents.clear();
+            for (DocumentSnapshot doc : value.getDocuments()) {
+                DocumentSnapshot before = previous.remove(doc.getId());
+                if (before == null || !sameData(before, doc)) {
+                    changed.add(doc);
+                }
+                documents.put(doc.getId(), doc);
+            }
+            removed.addAll(previous.keySet());
+        }
+    }
+
+    private static boolean sameData(DocumentSnapshot a, DocumentSnapshot b) {
+        Map<String, Object> dataA = a.getData();
+        Map<String, Object> dataB = b.getData();
+        return dataA != null ? dataA.equals(dataB) : dataB == null;
+    }
+
+    private class Subscriber implements Subscription, LifecycleEventObserver {
+        final SharedQuery shared;
+        final LifecycleOwner owner;
+        final Observer observer;
+        boolean active = false;
+        // Faux tant que cet abonné n'a pas reçu l'état complet de la requête
+        boolean initialized = false;
+        // Ids modifiés pendant que l'écran était arrêté
+        final Set<String> pendingIds = new LinkedHashSet<>();
+
+        Subscriber(SharedQuery shared, LifecycleOwner owner, Observer observer) {
+            this.shared = shared;
+            this.owner = owner;
+            this.observer = observer;
+        }
+
+        @Override
+        public void onStateChanged(@NonNull LifecycleOwner source, @NonNull Lifecycle.Event event) {
+            if (event == Lifecycle.Event.ON_START) {
+                active = true;
+                shared.update();
+                flushPending();
+            } else if (event == Lifecycle.Event.ON_STOP) {
+                active = false;
+                shared.update();
+            } else if (event == Lifecycle.Event.ON_DESTROY) {
+                remove();
+            }
+        }
+
+        @Override
+        public void remove() {
+            owner.getLifecycle().removeObserver(this);
+            if (!shared.subscribers.remove(this)) return;
+            active = false;
+            if (shared.subscribers.isEmpty()) {
+                shared.close();
+            } else {
+                shared.update();
+            }
+        }
+
+        void dispatch(List<DocumentSnapshot> changed, List<String> removed) {
+            if (!initialized) {
+                if (active) deliverAll();
+                return;
+            }
+            if (changed.isEmpty() && removed.isEmpty()) return;
+            if (active) {
+                observer.onChanges(changed, removed);
+                return;
+            }
+            // Écran arrêté mais requête encore écoutée pour un autre : on note seulement les ids
+            deferredEvents++;
+            for (DocumentSnapshot doc : changed) {
+                pendingIds.add(doc.getId());
+            }
+            pendingIds.addAll(removed);
+        }
+
+        // Retour au premier plan : l'état complet au premier passage, sinon seulement ce qui a changé
+        private void flushPending() {
+            if (!shared.hasState) return;
+            if (!initialized) {
+                deliverAll();
+                return;
+            }
+            if (pendingIds.isEmpty()) return;
+            List<DocumentSnapshot> changed = new ArrayList<>();
+            List<String> removed = new ArrayList<>();
+            for (String id : pendingIds) {
+                DocumentSnapshot doc = shared.documents.get(id);
+                if (doc != null) {
+                    changed.add(doc);
+                } else {
+                    removed.add(id);
+                }
+            }
+            pendingIds.clear();
+            observer.onChanges(changed, removed);
+        }
+
+        private void deliverAll() {
+            initialized = true;
+            pendingIds.clear();
+            observer.onChanges(new ArrayList<>(shared.documents.values()), Collections.emptyList());
+        }
+    }
+}
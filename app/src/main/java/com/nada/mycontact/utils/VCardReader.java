@@ -0,0 +1,201 @@
+package com.nada.mycontact.utils;
+
+import android.util.Base64;
+
+import com.google.firebase.Timestamp;
+import com.nada.mycontact.models.Contact;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
+// Lecteur vCard 3.0 / 4.0 en flux : une carte à la fois, lignes repliées (RFC 6350 §3.2) recollées
+public class VCardReader implements ContactRecordReader {
+
+    private final BufferedReader reader;
+    private String pendingLine;
+    private int index = 0;
+
+    public VCardReader(Reader reader) {
+        this.reader = new BufferedReader(reader);
+    }
+
+    @Override
+    public Record next() throws IOException {
+        String line;
+        // Aller jusqu'au début de la prochaine carte
+        while ((line = readUnfolded()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VCARD")) break;
+        }
+        if (line == null) return null;
+
+        Contact contact = new Contact();
+        String formattedName = null;
+        byte[] photo = null;
+
+        while ((line = readUnfolded()) != null && !line.equalsIgnoreCase("END:VCARD")) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) continue;
+
+            String params = line.substring(0, colon);
+            String value = line.substring(colon + 1);
+            int semicolon = params.indexOf(';');
+            String name = (semicolon >= 0 ? params.substring(0, semicolon) : params).toUpperCase(Locale.ROOT);
+            // Groupe éventuel : "item1.TEL"
+            int dot = name.lastIndexOf('.');
+            if (dot >= 0) name = name.substring(dot + 1);
+
+            switch (name) {
+                case "N": {
+                    List<String> parts = splitComponents(value);
+                    contact.setLastName(unescape(parts.get(0)));
+                    if (parts.size() > 1) contact.setFirstName(unescape(parts.get(1)));
+                    break;
+                }
+                case "FN":
+                    formattedName = unescape(value);
+                    break;
+                case "TEL":
+                    if (contact.getPhoneNumber() == null) contact.setPhoneNumber(unescape(stripUri(value, "tel:")));
+                    break;
+                case "EMAIL":
+                    if (contact.getEmail() == null) contact.setEmail(unescape(value));
+                    break;
+                case "URL":
+                    if (contact.getUrl() == null) contact.setUrl(unescape(value));
+                    break;
+                case "ADR":
+                    if (contact.getAddress() == null) contact.setAddress(formatAddress(value));
+                    break;
+                case "NOTE":
+                    contact.setNotes(unescape(value));
+                    break;
+                case "BDAY":
+                    contact.setBirthday(parseBirthday(value));
+                    break;
+                case "PHOTO":
+                    photo = decodePhoto(params, value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        // Pas de N : on découpe FN
+        if (contact.getFirstName() == null && contact.getLastName() == null && formattedName != null) {
+            int space = formattedName.indexOf(' ');
+            if (space > 0) {
+                contact.setFirstName(formattedName.substring(0, space));
+                contact.setLastName(formattedName.substring(space + 1));
+            } else {
+                contact.setFirstName(formattedName);
+            }
+        }
+        return new Record(index++, contact, photo);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Une ligne logique : les lignes qui commencent par un espace ou une tabulation la continuent
+    private String readUnfolded() throws IOException {
+        String line = pendingLine != null ? pendingLine : reader.readLine();
+        pendingLine = null;
+        if (line == null) return null;
+
+        StringBuilder unfolded = null;
+        String next;
+        while ((next = reader.readLine()) != null
+                && !next.isEmpty() && (next.charAt(0) == ' ' || next.charAt(0) == '\t')) {
+            if (unfolded == null) unfolded = new StringBuilder(line);
+            unfolded.append(next, 1, next.length());
+        }
+        pendingLine = next;
+        return unfolded != null ? unfolded.toString() : line;
+    }
+
+    // vCard 3 : PHOTO;ENCODING=b;TYPE=JPEG:<base64> ; vCard 4 : PHOTO:data:image/jpeg;base64,<base64>
+    private static byte[] decodePhoto(String params, String value) {
+        try {
+            if (value.startsWith("data:")) {
+                int comma = value.indexOf(',');
+                return comma > 0 ? Base64.decode(value.substring(comma + 1), Base64.DEFAULT) : null;
+            }
+            String upper = params.toUpperCase(Locale.ROOT);
+            if (upper.contains("ENCODING=B") || upper.contains("ENCODING=BASE64")) {
+                return Base64.decode(value, Base64.DEFAULT);
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // Photo par URL : non importée
+        return null;
+    }
+
+    private static String formatAddress(String value) {
+        StringBuilder address = new StringBuilder();
+        for (String part : splitComponents(value)) {
+            String unescaped = unescape(part).trim();
+            if (unescaped.isEmpty()) continue;
+            if (address.length() > 0) address.append(", ");
+            address.append(unescaped);
+        }
+        return address.toString();
+    }
+
+    private static Timestamp parseBirthday(String value) {
+        String digits = value.replace("-", "");
+        if (digits.length() < 8) return null;
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("yyyyMMdd", Locale.ROOT);
+            Date date = format.parse(digits.substring(0, 8));
+            return date != null ? new Timestamp(date) : null;
+        } catch (ParseException e) {
+            return null;
+        }
+    }
+
+    private static String stripUri(String value, String scheme) {
+        return value.regionMatches(true, 0, scheme, 0, scheme.length()) ? value.substring(scheme.length()) : value;
+    }
+
+    // Découpe sur les ';' non échappés (N, ADR) ; les composants restent à déséchapper
+    private static List<String> splitComponents(String value) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ';') {
+                parts.add(value.substring(start, i));
+                start = i + 1;
+            }
+        }
+        parts.add(value.substring(start));
+        return parts;
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder result = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                result.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
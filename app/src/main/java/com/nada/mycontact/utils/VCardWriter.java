@@ -0,0 +1,90 @@
+package com.nada.mycontact.utils;
+
+import android.util.Base64;
+
+import com.nada.mycontact.models.Contact;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+
+// vCard 3.0 ; la photo JPEG est encodée une seule fois en Base64, par lignes repliées de 76 caractères
+public class VCardWriter implements ContactRecordWriter {
+    private static final String CRLF = "\r\n";
+    // 57 octets -> 76 caractères Base64
+    private static final int PHOTO_CHUNK = 57;
+
+    private final Writer writer;
+    private final SimpleDateFormat birthdayFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.ROOT);
+
+    public VCardWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void write(Contact contact, byte[] photo) throws IOException {
+        writer.write("BEGIN:VCARD" + CRLF);
+        writer.write("VERSION:3.0" + CRLF);
+        writer.write("N:" + escape(contact.getLastName()) + ";" + escape(contact.getFirstName()) + ";;;" + CRLF);
+        writer.write("FN:" + escape(contact.getFullName()) + CRLF);
+        writeIfPresent("TEL;TYPE=CELL", contact.getPhoneNumber());
+        writeIfPresent("EMAIL", contact.getEmail());
+        writeIfPresent("URL", contact.getUrl());
+        if (notEmpty(contact.getAddress())) {
+            writer.write("ADR:;;" + escape(contact.getAddress()) + ";;;;" + CRLF);
+        }
+        if (contact.getBirthday() != null) {
+            writer.write("BDAY:" + birthdayFormat.format(contact.getBirthday().toDate()) + CRLF);
+        }
+        writeIfPresent("NOTE", contact.getNotes());
+        if (photo != null && photo.length > 0) {
+            writer.write("PHOTO;ENCODING=b;TYPE=JPEG:" + CRLF);
+            for (int offset = 0; offset < photo.length; offset += PHOTO_CHUNK) {
+                int length = Math.min(PHOTO_CHUNK, photo.length - offset);
+                writer.write(' ');
+                writer.write(Base64.encodeToString(photo, offset, length, Base64.NO_WRAP));
+                writer.write(CRLF);
+            }
+        }
+        writer.write("END:VCARD" + CRLF);
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void writeIfPresent(String property, String value) throws IOException {
+        if (notEmpty(value)) {
+            writer.write(property + ":" + escape(value) + CRLF);
+        }
+    }
+
+    private static boolean notEmpty(String value) {
+        return value != null && !value.isEmpty();
+    }
+
+    private static String escape(String value) {
+        if (value == null) return "";
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                case ';':
+                case ',':
+                    escaped.append('\\').append(c);
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    break;
+                default:
+                    escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
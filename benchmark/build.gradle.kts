@@ -0,0 +1,40 @@
+plugins {
+    id("java-library")
+    id("me.champeau.jmh")
+}
+
+// Benchmarks JVM (JMH) des parties en Java pur de :app.
+// Les sources mesurées sont compilées directement depuis app/src/main/java.
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+sourceSets {
+    main {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include("com/nada/mycontact/models/ContactListItem.java")
+            include("com/nada/mycontact/models/ContactSummary.java")
+            include("com/nada/mycontact/models/NormalizedName.java")
+            include("com/nada/mycontact/utils/ByteBudgetEncoder.java")
+            include("com/nada/mycontact/utils/ContactDeltaEngine.java")
+            include("com/nada/mycontact/utils/ContactSearchIndex.java")
+            include("com/nada/mycontact/utils/DuplicateDetector.java")
+            include("com/nada/mycontact/utils/NameNormalizer.java")
+            include("com/nada/mycontact/utils/PhoneIndex.java")
+        }
+    }
+}
+
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+    // Octets et objets alloués par opération (gc.alloc.rate.norm) à côté des temps
+    profilers.set(listOf("gc"))
+}
@@ -0,0 +1,179 @@
+package com.nada.mycontact.benchmark;
+
+import com.nada.mycontact.models.ContactListItem;
+import com.nada.mycontact.models.ContactSummary;
+import com.nada.mycontact.utils.ContactDeltaEngine;
+import com.nada.mycontact.utils.ContactSearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Construction de la liste affichée : chemin actuel (ContactDeltaEngine + ContactSearchIndex)
+// comparé à l'ancien MainActivity (sortContacts() + filterContacts() + updateDisplayList()
+// refaits en entier à chaque snapshot ou frappe), reproduit ici à l'identique.
+// Lancer avec le profiler gc (configuré dans build.gradle.kts) pour les allocations par opération.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContactListBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    @Param({"mar"})
+    public String query;
+
+    private SyntheticContacts contacts;
+    private ContactSummary[] summaries;
+    private ContactDeltaEngine engine;
+    private ContactSearchIndex searchIndex;
+    private int next = 0;
+
+    @Setup
+    public void setUp() {
+        contacts = new SyntheticContacts(size);
+        summaries = new ContactSummary[size];
+        engine = new ContactDeltaEngine();
+        searchIndex = new ContactSearchIndex();
+        for (int i = 0; i < size; i++) {
+            summaries[i] = summaryOf(i, contacts.favorites[i]);
+            engine.upsert(summaries[i]);
+            searchIndex.put(summaries[i].getId(), summaries[i].getNormalizedName().getSearchForm(),
+                    summaries[i].getPhoneNumber());
+        }
+    }
+
+    private ContactSummary summaryOf(int i, boolean favorite) {
+        return new ContactSummary(contacts.ids[i], contacts.firstNames[i], contacts.lastNames[i],
+                contacts.phoneNumbers[i], favorite, false, null);
+    }
+
+    // Premier chargement : tous les contacts insérés un par un
+    @Benchmark
+    public List<ContactListItem> engineInitialLoad() {
+        ContactDeltaEngine fresh = new ContactDeltaEngine();
+        for (ContactSummary summary : summaries) {
+            fresh.upsert(summary);
+        }
+        return fresh.snapshot();
+    }
+
+    // Un contact modifié (favori basculé) puis la liste remise à l'adapter, comme applyChange()
+    @Benchmark
+    public List<ContactListItem> engineSingleChange() {
+        int i = next++ % size;
+        engine.upsert(summaryOf(i, !contacts.favorites[i]));
+        engine.upsert(summaries[i]);
+        return engine.snapshot();
+    }
+
+    // Recherche : index, contacts trouvés remis dans l'ordre d'affichage, puis headers
+    @Benchmark
+    public List<ContactListItem> engineFilter() {
+        Set<String> ids = searchIndex.search(query);
+        return ContactDeltaEngine.buildItems(engine.getContacts(ids));
+    }
+
+    // Ancien chemin après chaque snapshot : tri complet puis liste reconstruite
+    @Benchmark
+    public List<LegacyItem> legacySortAndDisplay() {
+        List<ContactSummary> list = new ArrayList<>(Arrays.asList(summaries));
+        legacySort(list);
+        return legacyDisplayList(list);
+    }
+
+    // Ancien chemin à chaque frappe : parcours de tout le carnet puis liste reconstruite
+    @Benchmark
+    public List<LegacyItem> legacyFilter() {
+        List<ContactSummary> filtered = new ArrayList<>();
+        String lowerCaseQuery = query.toLowerCase();
+        for (ContactSummary contact : summaries) {
+            String fullName = legacyFullName(contact).toLowerCase();
+            String phone = contact.getPhoneNumber() != null ? contact.getPhoneNumber() : "";
+            if (fullName.contains(lowerCaseQuery) || phone.contains(query)) {
+                filtered.add(contact);
+            }
+        }
+        return legacyDisplayList(filtered);
+    }
+
+    // Ancien Contact.getFullName() : recalculé à chaque appel, donc à chaque comparaison du tri
+    static String legacyFullName(ContactSummary contact) {
+        StringBuilder fullName = new StringBuilder();
+        String firstName = contact.getFirstName();
+        String lastName = contact.getLastName();
+        if (firstName != null && !firstName.isEmpty()) {
+            fullName.append(firstName);
+        }
+        if (lastName != null && !lastName.isEmpty()) {
+            if (fullName.length() > 0) fullName.append(" ");
+            fullName.append(lastName);
+        }
+        return fullName.toString();
+    }
+
+    private static void legacySort(List<ContactSummary> list) {
+        Collections.sort(list, (c1, c2) -> {
+            if (c1.isFavorite() && !c2.isFavorite()) return -1;
+            if (!c1.isFavorite() && c2.isFavorite()) return 1;
+            return legacyFullName(c1).toLowerCase().compareTo(legacyFullName(c2).toLowerCase());
+        });
+    }
+
+    private static List<LegacyItem> legacyDisplayList(List<ContactSummary> filtered) {
+        List<LegacyItem> displayItems = new ArrayList<>();
+        List<ContactSummary> favorites = new ArrayList<>();
+        List<ContactSummary> others = new ArrayList<>();
+        for (ContactSummary contact : filtered) {
+            if (contact.isFavorite()) {
+                favorites.add(contact);
+            } else {
+                others.add(contact);
+            }
+        }
+
+        if (!favorites.isEmpty()) {
+            displayItems.add(new LegacyItem("HIGHLIGHTS", null));
+            for (ContactSummary contact : favorites) {
+                displayItems.add(new LegacyItem(null, contact));
+            }
+        }
+        char currentLetter = '\0';
+        for (ContactSummary contact : others) {
+            String name = legacyFullName(contact);
+            if (!name.isEmpty()) {
+                char firstLetter = Character.toUpperCase(name.charAt(0));
+                if (firstLetter != currentLetter) {
+                    currentLetter = firstLetter;
+                    displayItems.add(new LegacyItem(String.valueOf(currentLetter), null));
+                }
+                displayItems.add(new LegacyItem(null, contact));
+            }
+        }
+        return displayItems;
+    }
+
+    // Ancien ContactListItem, sans identifiant stable
+    static final class LegacyItem {
+        final String header;
+        final ContactSummary contact;
+
+        LegacyItem(String header, ContactSummary contact) {
+            this.header = header;
+            this.contact = contact;
+        }
+    }
+}
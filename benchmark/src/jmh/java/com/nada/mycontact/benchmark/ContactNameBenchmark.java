@@ -0,0 +1,83 @@
+package com.nada.mycontact.benchmark;
+
+import com.nada.mycontact.models.ContactSummary;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Nom complet et initiales pour tout le carnet : recalcul à chaque lecture (ancien Contact,
+// appelé à chaque bind et chaque comparaison) contre valeurs calculées une fois par ContactSummary.
+// Contact lui-même dépend de Firestore (Timestamp, annotations) et ne compile pas sur la JVM ;
+// ContactSummary applique les mêmes règles.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ContactNameBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int size;
+
+    private SyntheticContacts contacts;
+    private ContactSummary[] summaries;
+
+    @Setup
+    public void setUp() {
+        contacts = new SyntheticContacts(size);
+        summaries = new ContactSummary[size];
+        for (int i = 0; i < size; i++) {
+            summaries[i] = build(i);
+        }
+    }
+
+    private ContactSummary build(int i) {
+        return new ContactSummary(contacts.ids[i], contacts.firstNames[i], contacts.lastNames[i],
+                contacts.phoneNumbers[i], contacts.favorites[i], false, null);
+    }
+
+    @Benchmark
+    public void legacyNameAndInitials(Blackhole blackhole) {
+        for (ContactSummary summary : summaries) {
+            blackhole.consume(ContactListBenchmark.legacyFullName(summary));
+            blackhole.consume(legacyInitials(summary));
+        }
+    }
+
+    @Benchmark
+    public void summaryNameAndInitials(Blackhole blackhole) {
+        for (ContactSummary summary : summaries) {
+            blackhole.consume(summary.getFullName());
+            blackhole.consume(summary.getInitials());
+        }
+    }
+
+    // Coût payé une fois par snapshot : nom, initiales et formes normalisées (tri, section, recherche)
+    @Benchmark
+    public void summaryConstruction(Blackhole blackhole) {
+        for (int i = 0; i < size; i++) {
+            blackhole.consume(build(i));
+        }
+    }
+
+    // Ancien Contact.getInitials()
+    private static String legacyInitials(ContactSummary contact) {
+        StringBuilder initials = new StringBuilder();
+        String firstName = contact.getFirstName();
+        String lastName = contact.getLastName();
+        if (firstName != null && !firstName.isEmpty()) {
+            initials.append(firstName.charAt(0));
+        }
+        if (lastName != null && !lastName.isEmpty()) {
+            initials.append(lastName.charAt(0));
+        }
+        return initials.toString().toUpperCase();
+    }
+}
@@ -0,0 +1,138 @@
+package com.nada.mycontact.benchmark;
+
+import com.nada.mycontact.utils.DuplicateDetector;
+import com.nada.mycontact.utils.NameNormalizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Détection des doublons sur un carnet synthétique dans lequel des doublons sont injectés
+// (nom inversé ou sans accents, numéro reformaté, email en majuscules).
+// Le TearDown affiche combien de doublons injectés ont été retrouvés.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DuplicateDetectionBenchmark {
+
+    // Contacts d'origine ; les doublons s'ajoutent
+    @Param({"10000", "50000"})
+    public int size;
+
+    // Pourcentage de contacts qui reçoivent un doublon
+    @Param({"5"})
+    public int duplicatePercent;
+
+    private String[] ids;
+    private String[] names;
+    private String[] phones;
+    private String[] emails;
+    // id du doublon -> id de l'original
+    private final Map<String, String> injected = new HashMap<>();
+    private List<List<String>> lastClusters;
+    private DuplicateDetector lastDetector;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticContacts contacts = new SyntheticContacts(size);
+        Random random = new Random(7);
+        int duplicates = size * duplicatePercent / 100;
+        ids = new String[size + duplicates];
+        names = new String[ids.length];
+        phones = new String[ids.length];
+        emails = new String[ids.length];
+
+        for (int i = 0; i < size; i++) {
+            ids[i] = contacts.ids[i];
+            names[i] = contacts.fullNames[i];
+            phones[i] = contacts.phoneNumbers[i];
+            // Un contact sur deux a un email
+            emails[i] = i % 2 == 0
+                    ? NameNormalizer.fold(contacts.fullNames[i]).replaceAll("[^a-z]+", ".") + i + "@example.com"
+                    : null;
+        }
+
+        injected.clear();
+        for (int d = 0; d < duplicates; d++) {
+            int original = random.nextInt(size);
+            int i = size + d;
+            ids[i] = "duplicate-" + d;
+            injected.put(ids[i], ids[original]);
+            names[i] = variantName(names[original], random);
+            switch (random.nextInt(3)) {
+                case 0:
+                    // Même numéro écrit autrement, pas d'email
+                    phones[i] = "0" + phones[original].substring(4).replace(" ", "");
+                    break;
+                case 1:
+                    // Même email, pas de numéro
+                    emails[i] = emails[original] != null ? emails[original].toUpperCase(Locale.ROOT) : null;
+                    phones[i] = emails[i] == null ? phones[original] : null;
+                    break;
+                default:
+                    phones[i] = phones[original];
+                    emails[i] = emails[original];
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<List<String>> detect() {
+        DuplicateDetector detector = new DuplicateDetector();
+        for (int i = 0; i < ids.length; i++) {
+            detector.add(ids[i], names[i], phones[i], emails[i]);
+        }
+        lastClusters = detector.findClusters();
+        lastDetector = detector;
+        return lastClusters;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (lastClusters == null) return;
+        Map<String, Integer> clusterOf = new HashMap<>();
+        for (int c = 0; c < lastClusters.size(); c++) {
+            for (String id : lastClusters.get(c)) {
+                clusterOf.put(id, c);
+            }
+        }
+        int found = 0;
+        for (Map.Entry<String, String> duplicate : injected.entrySet()) {
+            Integer cluster = clusterOf.get(duplicate.getKey());
+            if (cluster != null && cluster.equals(clusterOf.get(duplicate.getValue()))) found++;
+        }
+        System.out.println("\n" + ids.length + " contacts: " + lastClusters.size() + " groups, " + found + "/"
+                + injected.size() + " injected duplicates found, " + lastDetector.getComparisonCount()
+                + " comparisons (all pairs: " + (long) ids.length * (ids.length - 1) / 2 + "), "
+                + lastDetector.getSkippedBlockCount() + " oversized blocks skipped");
+    }
+
+    // Nom tel qu'il pourrait être ressaisi : ordre inversé, sans accents, ou en majuscules
+    private static String variantName(String name, Random random) {
+        switch (random.nextInt(3)) {
+            case 0: {
+                int space = name.indexOf(' ');
+                return space > 0 ? name.substring(space + 1) + " " + name.substring(0, space) : name;
+            }
+            case 1:
+                return NameNormalizer.fold(name);
+            default:
+                return name.toUpperCase(Locale.ROOT);
+        }
+    }
+}
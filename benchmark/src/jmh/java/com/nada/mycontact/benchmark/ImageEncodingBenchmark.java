@@ -0,0 +1,141 @@
+package com.nada.mycontact.benchmark;
+
+import com.nada.mycontact.utils.ByteBudgetEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+// Octets produits et temps d'encodage : qualité fixe 80 (ancien PhotoStore) contre recherche sous budget.
+// Bitmap.compress n'existe pas sur la JVM : le JPEG d'ImageIO le remplace, la recherche est la même.
+// Corpus synthétique reproductible : aplats, dégradés (portrait flou) et bruit (photo très détaillée).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageEncodingBenchmark {
+
+    private static final int CORPUS_SIZE = 12;
+
+    // Paliers de PhotoStore : miniature 96 px / 4 Ko, pleine taille 400 px / 60 Ko
+    @Param({"96:4096", "400:61440"})
+    public String tier;
+
+    private BufferedImage[] corpus;
+    private int budget;
+    private int next = 0;
+
+    private long fixedBytes, fixedMax, budgetBytes, budgetMax, attempts, encodes, overBudget;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String[] parts = tier.split(":");
+        int size = Integer.parseInt(parts[0]);
+        budget = Integer.parseInt(parts[1]);
+
+        Random random = new Random(42);
+        corpus = new BufferedImage[CORPUS_SIZE];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            corpus[i] = syntheticImage(size, i % 3, random);
+        }
+    }
+
+    @Benchmark
+    public byte[] fixedQuality80() throws IOException {
+        BufferedImage image = corpus[next++ % CORPUS_SIZE];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writeJpeg(image, 80, out);
+        byte[] bytes = out.toByteArray();
+        fixedBytes += bytes.length;
+        fixedMax = Math.max(fixedMax, bytes.length);
+        encodes++;
+        return bytes;
+    }
+
+    @Benchmark
+    public byte[] budgetSearch() throws IOException {
+        BufferedImage image = corpus[next++ % CORPUS_SIZE];
+        ByteBudgetEncoder.Result result = ByteBudgetEncoder.encode(
+                (quality, out) -> writeJpeg(image, quality, out), budget);
+        budgetBytes += result.bytes.length;
+        budgetMax = Math.max(budgetMax, result.bytes.length);
+        attempts += result.attempts;
+        if (!result.withinBudget) overBudget++;
+        encodes++;
+        return result.bytes;
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (encodes == 0) return;
+        if (fixedBytes > 0) {
+            System.out.println("\n[" + tier + "] fixed q80: avg " + fixedBytes / encodes + " B, max " + fixedMax + " B");
+        }
+        if (budgetBytes > 0) {
+            System.out.println("\n[" + tier + "] budget: avg " + budgetBytes / encodes + " B, max " + budgetMax
+                    + " B, " + String.format("%.1f", (double) attempts / encodes) + " encodes/photo, "
+                    + overBudget + " over budget");
+        }
+    }
+
+    private static void writeJpeg(BufferedImage image, int quality, OutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        ImageWriter writer = writers.next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality / 100f);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    // kind 0 : aplats ; 1 : dégradés doux ; 2 : dégradé + bruit
+    private static BufferedImage syntheticImage(int size, int kind, Random random) {
+        BufferedImage image = new BufferedImage(size, size * 3 / 4, BufferedImage.TYPE_INT_RGB);
+        int base = random.nextInt(0xFFFFFF);
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < size; x++) {
+                int rgb;
+                if (kind == 0) {
+                    rgb = (x < size / 2) ? base : ~base & 0xFFFFFF;
+                } else {
+                    int r = (x * 255 / size + (base >> 16)) & 0xFF;
+                    int g = (y * 255 / image.getHeight() + (base >> 8)) & 0xFF;
+                    int b = ((x + y) * 127 / size + base) & 0xFF;
+                    if (kind == 2) {
+                        int noise = random.nextInt(64) - 32;
+                        r = Math.max(0, Math.min(255, r + noise));
+                        g = Math.max(0, Math.min(255, g + noise));
+                        b = Math.max(0, Math.min(255, b + noise));
+                    }
+                    rgb = (r << 16) | (g << 8) | b;
+                }
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,114 @@
+package com.nada.mycontact.benchmark;
+
+import com.nada.mycontact.utils.PhoneIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Recherche d'un appelant : PhoneIndex (table long + filtre de Bloom) comparé à une HashMap<Long>,
+// à une recherche dichotomique dans un long[] trié et au parcours des numéros tels que saisis.
+// Les numéros entrants arrivent au format E.164 ("+33612345678"), comme dans Call.Details.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PhoneIndexBenchmark {
+
+    private static final int QUERIES = 1024;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private SyntheticContacts contacts;
+    private PhoneIndex index;
+    private Map<Long, String> hashMap;
+    private long[] sorted;
+    // Numéros du carnet / numéros inconnus, au format des appels entrants
+    private String[] knownCalls;
+    private String[] unknownCalls;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        contacts = new SyntheticContacts(size);
+        index = new PhoneIndex(33);
+        hashMap = new HashMap<>();
+        sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            // Un contact sur dix bloqué
+            index.put(contacts.ids[i], contacts.fullNames[i], contacts.phoneNumbers[i], i % 10 == 0);
+            long key = PhoneIndex.normalize(contacts.phoneNumbers[i], 33);
+            hashMap.put(key, contacts.fullNames[i]);
+            sorted[i] = key;
+        }
+        Arrays.sort(sorted);
+
+        Random random = new Random(11);
+        knownCalls = new String[QUERIES];
+        unknownCalls = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            knownCalls[q] = "+" + PhoneIndex.normalize(contacts.phoneNumbers[random.nextInt(size)], 33);
+            // Fixes : jamais dans le carnet synthétique (que des mobiles)
+            unknownCalls[q] = String.format("+331%08d", random.nextInt(100_000_000));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        System.out.println("\n" + index.size() + " numbers: " + index.getBloomRejectCount() + "/"
+                + index.getLookupCount() + " lookups rejected by the Bloom filter");
+    }
+
+    private int nextQuery() {
+        next = (next + 1) & (QUERIES - 1);
+        return next;
+    }
+
+    @Benchmark
+    public boolean indexKnownCaller() {
+        return index.isBlocked(knownCalls[nextQuery()]);
+    }
+
+    @Benchmark
+    public boolean indexUnknownCaller() {
+        return index.isBlocked(unknownCalls[nextQuery()]);
+    }
+
+    @Benchmark
+    public String indexCallerName() {
+        return index.callerName(knownCalls[nextQuery()]);
+    }
+
+    @Benchmark
+    public String hashMapKnownCaller() {
+        return hashMap.get(PhoneIndex.normalize(knownCalls[nextQuery()], 33));
+    }
+
+    @Benchmark
+    public int sortedArrayKnownCaller() {
+        return Arrays.binarySearch(sorted, PhoneIndex.normalize(knownCalls[nextQuery()], 33));
+    }
+
+    // Sans index : chaque numéro saisi normalisé et comparé
+    @Benchmark
+    public int linearScanKnownCaller() {
+        long key = PhoneIndex.normalize(knownCalls[nextQuery()], 33);
+        for (int i = 0; i < contacts.size(); i++) {
+            if (PhoneIndex.normalize(contacts.phoneNumbers[i], 33) == key) return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,72 @@
+package com.nada.mycontact.benchmark;
+
+import com.nada.mycontact.utils.ContactSearchIndex;
+import com.nada.mycontact.utils.NameNormalizer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Recherche par l'index comparée au parcours linéaire de l'ancien MainActivity.filterContacts()
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchIndexBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"mar", "zirari", "06 12", "a"})
+    public String query;
+
+    private SyntheticContacts contacts;
+    private ContactSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        contacts = new SyntheticContacts(size);
+        index = new ContactSearchIndex();
+        for (int i = 0; i < contacts.size(); i++) {
+            index.put(contacts.ids[i], NameNormalizer.fold(contacts.fullNames[i]), contacts.phoneNumbers[i]);
+        }
+    }
+
+    @Benchmark
+    public Set<String> indexSearch() {
+        return index.search(query);
+    }
+
+    @Benchmark
+    public List<String> linearScan() {
+        List<String> result = new ArrayList<>();
+        String lowerCaseQuery = query.toLowerCase();
+        for (int i = 0; i < contacts.size(); i++) {
+            String fullName = contacts.fullNames[i].toLowerCase();
+            String phone = contacts.phoneNumbers[i];
+            if (fullName.contains(lowerCaseQuery) || phone.contains(query)) {
+                result.add(contacts.ids[i]);
+            }
+        }
+        return result;
+    }
+
+    // Mise à jour incrémentale : un contact modifié
+    @Benchmark
+    public void indexUpdate(Blackhole blackhole) {
+        int i = size / 2;
+        index.put(contacts.ids[i], NameNormalizer.fold(contacts.fullNames[i] + " Modifié"), contacts.phoneNumbers[i]);
+        index.put(contacts.ids[i], NameNormalizer.fold(contacts.fullNames[i]), contacts.phoneNumbers[i]);
+        blackhole.consume(index.size());
+    }
+}
@@ -0,0 +1,51 @@
+package com.nada.mycontact.benchmark;
+
+import java.util.Random;
+
+// Carnet d'adresses synthétique et reproductible (graine fixe)
+final class SyntheticContacts {
+
+    private static final String[] FIRST_NAMES = {
+            "Nada", "Youssef", "Émilie", "Zoé", "Adam", "Sara", "Mehdi", "Inès", "Lucas", "Chloé",
+            "Omar", "Léa", "Hugo", "Amina", "Louis", "Yasmine", "Karim", "Manon", "Rayan", "Camille"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Zirari", "Martin", "Bernard", "El Amrani", "Dubois", "Benali", "Moreau", "Laurent",
+            "Alaoui", "Lefèvre", "Roux", "Bennani", "Fournier", "Girard", "Tazi", "Bonnet",
+            "Chraibi", "Dupont", "Lambert", "Fontaine"
+    };
+
+    final String[] ids;
+    final String[] firstNames;
+    final String[] lastNames;
+    final String[] fullNames;
+    final String[] phoneNumbers;
+    // Un contact sur vingt en favori
+    final boolean[] favorites;
+
+    SyntheticContacts(int size) {
+        Random random = new Random(42);
+        ids = new String[size];
+        firstNames = new String[size];
+        lastNames = new String[size];
+        fullNames = new String[size];
+        phoneNumbers = new String[size];
+        favorites = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            ids[i] = "contact-" + i;
+            firstNames[i] = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            lastNames[i] = LAST_NAMES[random.nextInt(LAST_NAMES.length)]
+                    + (random.nextInt(4) == 0 ? " " + (char) ('A' + random.nextInt(26)) + "." : "");
+            fullNames[i] = firstNames[i] + " " + lastNames[i];
+            phoneNumbers[i] = String.format("+33 6 %02d %02d %02d %02d",
+                    random.nextInt(100), random.nextInt(100), random.nextInt(100), random.nextInt(100));
+            favorites[i] = i % 20 == 0;
+        }
+    }
+
+    int size() {
+        return ids.length;
+    }
+}
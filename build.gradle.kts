@@ -12,6 +12,9 @@ buildscript {
 
 plugins {
     id("com.android.application") version "8.2.2" apply false
+    id("com.android.test") version "8.2.2" apply false
+    id("me.champeau.jmh") version "0.7.2" apply false
+    id("androidx.baselineprofile") version "1.2.3" apply false
 }
 
 tasks.register("clean", Delete::class) {
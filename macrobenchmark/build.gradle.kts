@@ -0,0 +1,43 @@
+plugins {
+    id("com.android.test")
+    id("androidx.baselineprofile")
+}
+
+// Macrobenchmarks de :app (démarrage, défilement, ouverture d'un contact) et génération du
+// profil de référence, sur des contacts semés dans l'émulateur Firestore :
+//   firebase emulators:start --only firestore
+//   ./gradlew :macrobenchmark:connectedBenchmarkReleaseAndroidTest
+//   ./gradlew :app:generateBaselineProfile   (API 33+ ou appareil rooté)
+// Appareil réel : adb reverse tcp:8080 tcp:8080 puis -PfirestoreEmulatorHost=localhost.
+// Build types benchmarkRelease / nonMinifiedRelease créés par le plugin baselineprofile.
+android {
+    namespace = "com.nada.mycontact.macrobenchmark"
+    compileSdk = 34
+
+    defaultConfig {
+        minSdk = 24
+        targetSdk = 34
+
+        testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
+        testInstrumentationRunnerArguments["firestoreEmulatorHost"] =
+            (project.findProperty("firestoreEmulatorHost") ?: "10.0.2.2").toString()
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_1_8
+        targetCompatibility = JavaVersion.VERSION_1_8
+    }
+
+    targetProjectPath = ":app"
+    experimentalProperties["android.experimental.self-instrumenting"] = true
+}
+
+dependencies {
+    implementation("androidx.test.ext:junit:1.1.5")
+    implementation("androidx.test.uiautomator:uiautomator:2.2.0")
+    implementation("androidx.benchmark:benchmark-macro-junit4:1.2.3")
+}
+
+baselineProfile {
+    useConnectedDevices = true
+}
@@ -0,0 +1,51 @@
+package com.nada.mycontact.macrobenchmark;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+// Profil de référence des parcours mesurés : démarrage jusqu'à la liste, défilement, ouverture
+// d'un contact. Lancé par ./gradlew :app:generateBaselineProfile, qui écrit le résultat
+// dans app/src/main/generated/baselineProfiles (voir build.gradle.kts).
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class BaselineProfileGenerator {
+
+    private static final int MAX_ITERATIONS = 15;
+    // Profil retenu quand il ne change plus pendant ce nombre d'itérations
+    private static final int STABLE_ITERATIONS = 3;
+
+    @Rule
+    public final BaselineProfileRule baselineProfileRule = new BaselineProfileRule();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        Journeys.prepare();
+    }
+
+    @Test
+    public void generate() {
+        baselineProfileRule.collect(
+                Journeys.PACKAGE_NAME,
+                MAX_ITERATIONS,
+                STABLE_ITERATIONS,
+                null,
+                false,
+                false,
+                rule -> true,
+                scope -> {
+                    scope.pressHome();
+                    Journeys.startAndWaitForList(scope);
+                    Journeys.flingList(scope);
+                    Journeys.openFirstContact(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
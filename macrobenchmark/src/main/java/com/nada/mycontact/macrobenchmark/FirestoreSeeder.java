@@ -0,0 +1,135 @@
+package com.nada.mycontact.macrobenchmark;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.content.res.Resources;
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+
+// Carnet reproductible (graine fixe) écrit dans l'émulateur Firestore par son API REST, dans le
+// projet de l'app mesurée : même contenu à chaque série de mesures, jamais les contacts réels.
+final class FirestoreSeeder {
+    private static final String TAG = "FirestoreSeeder";
+
+    // Plusieurs pages de ContactPager, assez pour défiler longtemps
+    static final int CONTACTS = 2000;
+
+    private static final int PORT = 8080;
+    // Limite Firestore d'un commit
+    private static final int WRITES_PER_COMMIT = 500;
+
+    private static final String[] FIRST_NAMES = {
+            "Nada", "Youssef", "Emilie", "Zoe", "Adam", "Sara", "Mehdi", "Ines", "Lucas", "Chloe",
+            "Omar", "Lea", "Hugo", "Amina", "Louis", "Yasmine", "Karim", "Manon", "Rayan", "Camille"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Zirari", "Martin", "Bernard", "El Amrani", "Dubois", "Benali", "Moreau", "Laurent",
+            "Alaoui", "Lefevre", "Roux", "Bennani", "Fournier", "Girard", "Tazi", "Bonnet",
+            "Chraibi", "Dupont", "Lambert", "Fontaine"
+    };
+
+    private static boolean seeded = false;
+
+    private FirestoreSeeder() {
+    }
+
+    // Une fois par exécution des tests
+    static synchronized void seedOnce() throws IOException, JSONException {
+        if (seeded) return;
+        long start = System.currentTimeMillis();
+        String host = InstrumentationRegistry.getArguments().getString("firestoreEmulatorHost", "10.0.2.2");
+        String projectId = projectId(InstrumentationRegistry.getInstrumentation().getContext());
+        String database = "projects/" + projectId + "/databases/(default)/documents";
+
+        // Base vidée : les contacts ajoutés pendant une mesure précédente ne restent pas
+        request("DELETE", "http://" + host + ":" + PORT + "/emulator/v1/" + database, null);
+
+        Random random = new Random(42);
+        JSONArray writes = new JSONArray();
+        for (int i = 0; i < CONTACTS; i++) {
+            writes.put(new JSONObject().put("update", contact(database, i, random)));
+            if (writes.length() == WRITES_PER_COMMIT || i == CONTACTS - 1) {
+                request("POST", "http://" + host + ":" + PORT + "/v1/" + database + ":commit",
+                        new JSONObject().put("writes", writes).toString());
+                writes = new JSONArray();
+            }
+        }
+        seeded = true;
+        Log.d(TAG, "Seeded " + CONTACTS + " contacts in " + projectId + " ("
+                + (System.currentTimeMillis() - start) + " ms)");
+    }
+
+    // Mêmes champs que ceux écrits par l'app (Contact, sortName pour la pagination)
+    private static JSONObject contact(String database, int index, Random random) throws JSONException {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        String phoneNumber = String.format(Locale.ROOT, "+33 6 %02d %02d %02d %02d",
+                random.nextInt(100), random.nextInt(100), random.nextInt(100), random.nextInt(100));
+
+        JSONObject fields = new JSONObject()
+                .put("firstName", value("stringValue", firstName))
+                .put("lastName", value("stringValue", lastName))
+                .put("phoneNumber", value("stringValue", phoneNumber))
+                .put("email", value("stringValue", firstName.toLowerCase(Locale.ROOT) + "." + index + "@example.com"))
+                .put("favorite", value("booleanValue", index % 20 == 0))
+                .put("blocked", value("booleanValue", index % 50 == 0))
+                .put("sortName", value("stringValue", (firstName + " " + lastName).toLowerCase(Locale.ROOT)))
+                .put("createdAt", value("timestampValue", "2024-01-01T00:00:00Z"));
+        return new JSONObject()
+                .put("name", database + "/contacts/" + String.format(Locale.ROOT, "seed-%05d", index))
+                .put("fields", fields);
+    }
+
+    private static JSONObject value(String type, Object value) throws JSONException {
+        return new JSONObject().put(type, value);
+    }
+
+    // project_id généré par google-services dans les ressources de l'app
+    private static String projectId(Context context) throws IOException {
+        try {
+            Resources resources = context.getPackageManager().getResourcesForApplication(Journeys.PACKAGE_NAME);
+            int id = resources.getIdentifier("project_id", "string", Journeys.PACKAGE_NAME);
+            if (id == 0) throw new IOException("No project_id resource in " + Journeys.PACKAGE_NAME);
+            return resources.getString(id);
+        } catch (PackageManager.NameNotFoundException e) {
+            throw new IOException(Journeys.PACKAGE_NAME + " is not installed", e);
+        }
+    }
+
+    private static void request(String method, String url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            // Jeton administrateur de l'émulateur : règles de sécurité ignorées
+            connection.setRequestProperty("Authorization", "Bearer owner");
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int code = connection.getResponseCode();
+            if (code / 100 != 2) {
+                throw new IOException(method + " " + url + " failed: HTTP " + code
+                        + " (is the Firestore emulator running?)");
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
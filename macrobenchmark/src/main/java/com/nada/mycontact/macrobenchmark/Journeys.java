@@ -0,0 +1,76 @@
+package com.nada.mycontact.macrobenchmark;
+
+import android.Manifest;
+import android.os.Build;
+
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.json.JSONException;
+
+import java.io.IOException;
+
+// Parcours utilisateur partagés par les mesures et par BaselineProfileGenerator :
+// le profil de référence couvre exactement ce qui est mesuré.
+final class Journeys {
+
+    static final String PACKAGE_NAME = "com.nada.mycontact";
+
+    private static final long TIMEOUT_MS = 10_000;
+    private static final int FLINGS = 3;
+
+    private Journeys() {
+    }
+
+    // Avant la première mesure : carnet semé, et pas de demande d'autorisation par-dessus la liste
+    static void prepare() throws IOException, JSONException {
+        FirestoreSeeder.seedOnce();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU) {
+            InstrumentationRegistry.getInstrumentation().getUiAutomation()
+                    .grantRuntimePermission(PACKAGE_NAME, Manifest.permission.POST_NOTIFICATIONS);
+        }
+    }
+
+    // SplashActivity puis MainActivity, jusqu'à la première ligne de contact affichée
+    static void startAndWaitForList(MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        waitForList(scope);
+    }
+
+    static void waitForList(MacrobenchmarkScope scope) {
+        Boolean found = scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, "nameText")), TIMEOUT_MS);
+        if (found == null || !found) {
+            throw new IllegalStateException("No contact row after " + TIMEOUT_MS
+                    + " ms (is the Firestore emulator running?)");
+        }
+    }
+
+    static void flingList(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 list = device.findObject(By.res(PACKAGE_NAME, "recyclerViewContacts"));
+        // Hors des bords de l'écran : pas de geste retour système
+        list.setGestureMargin(device.getDisplayWidth() / 5);
+        for (int i = 0; i < FLINGS; i++) {
+            list.fling(Direction.DOWN);
+        }
+        device.waitForIdle();
+    }
+
+    // ContactDetailsActivity ouverte depuis la liste, jusqu'au numéro affiché, puis retour
+    static void openFirstContact(MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        device.findObject(By.res(PACKAGE_NAME, "nameText")).click();
+        Boolean opened = device.wait(Until.hasObject(By.res(PACKAGE_NAME, "phoneText")), TIMEOUT_MS);
+        if (opened == null || !opened) {
+            throw new IllegalStateException("Contact details not shown after " + TIMEOUT_MS + " ms");
+        }
+        device.pressBack();
+        // nameText existe aussi dans l'écran détails : attendre la liste elle-même
+        device.wait(Until.hasObject(By.res(PACKAGE_NAME, "recyclerViewContacts")), TIMEOUT_MS);
+    }
+}
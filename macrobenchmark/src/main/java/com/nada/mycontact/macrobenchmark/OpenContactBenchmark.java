@@ -0,0 +1,62 @@
+package com.nada.mycontact.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+// Ouverture de ContactDetailsActivity depuis la liste (transition, lecture de ContactRepository,
+// photo) puis retour : durée des frames de tout l'aller-retour
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class OpenContactBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        Journeys.prepare();
+    }
+
+    @Test
+    public void openContactNoCompilation() {
+        openContact(new CompilationMode.None());
+    }
+
+    @Test
+    public void openContactBaselineProfile() {
+        openContact(new CompilationMode.Partial(BaselineProfileMode.UseIfAvailable));
+    }
+
+    private void openContact(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    Journeys.startAndWaitForList(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.openFirstContact(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
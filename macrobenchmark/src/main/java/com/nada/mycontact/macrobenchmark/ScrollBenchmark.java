@@ -0,0 +1,61 @@
+package com.nada.mycontact.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+
+import kotlin.Unit;
+
+// Durée des frames pendant des flings de recyclerViewContacts (avatars, headers, pages suivantes)
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class ScrollBenchmark {
+
+    private static final int ITERATIONS = 5;
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        Journeys.prepare();
+    }
+
+    @Test
+    public void flingNoCompilation() {
+        fling(new CompilationMode.None());
+    }
+
+    @Test
+    public void flingBaselineProfile() {
+        fling(new CompilationMode.Partial(BaselineProfileMode.UseIfAvailable));
+    }
+
+    private void fling(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new FrameTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    Journeys.startAndWaitForList(scope);
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.flingList(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
@@ -0,0 +1,76 @@
+package com.nada.mycontact.macrobenchmark;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+// Démarrage froid, tiède et chaud jusqu'à la première ligne de contact (timeToFullDisplay :
+// reportFullyDrawn() de MainActivity), sans compilation puis avec le profil de référence.
+@LargeTest
+@RunWith(Parameterized.class)
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Rule
+    public final MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    private final StartupMode startupMode;
+
+    public StartupBenchmark(StartupMode startupMode) {
+        this.startupMode = startupMode;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<StartupMode> startupModes() {
+        return Arrays.asList(StartupMode.COLD, StartupMode.WARM, StartupMode.HOT);
+    }
+
+    @BeforeClass
+    public static void prepare() throws Exception {
+        Journeys.prepare();
+    }
+
+    @Test
+    public void startupNoCompilation() {
+        startup(new CompilationMode.None());
+    }
+
+    @Test
+    public void startupBaselineProfile() {
+        // Profil commité dans :app ; UseIfAvailable : la mesure tourne aussi sur une variante qui n'en a pas
+        startup(new CompilationMode.Partial(BaselineProfileMode.UseIfAvailable));
+    }
+
+    private void startup(CompilationMode compilationMode) {
+        benchmarkRule.measureRepeated(
+                Journeys.PACKAGE_NAME,
+                Collections.singletonList(new StartupTimingMetric()),
+                compilationMode,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    Journeys.startAndWaitForList(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}